@@ -5,6 +5,7 @@ import { useAuth } from '../context/AuthContext'
 const Orders = () => {
   const { user } = useAuth()
   const [orders, setOrders] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
   const [loading, setLoading] = useState(true)
 
   useEffect(() => {
@@ -13,14 +14,16 @@ const Orders = () => {
     }
   }, [user])
 
-  const fetchOrders = async () => {
+  const fetchOrders = async (cursor) => {
     try {
       const response = await axios.get('/api/orders/user', {
         headers: {
           'X-User-Id': user.userId || user.id
-        }
+        },
+        params: cursor ? { cursor } : {}
       })
-      setOrders(response.data)
+      setOrders((previous) => (cursor ? [...previous, ...response.data.content] : response.data.content))
+      setNextCursor(response.data.hasNext ? response.data.nextCursor : null)
     } catch (error) {
       console.error('Failed to fetch orders:', error)
     } finally {
@@ -57,18 +60,19 @@ const Orders = () => {
                   ${order.totalAmount}
                 </p>
               </div>
-              <div>
-                <h4 className="font-semibold mb-2">Items:</h4>
-                <ul className="list-disc list-inside">
-                  {order.items.map((item) => (
-                    <li key={item.id}>
-                      Product ID: {item.productId} - Quantity: {item.quantity} - ${item.subtotal}
-                    </li>
-                  ))}
-                </ul>
-              </div>
+              <p className="text-gray-600">
+                Items: <span className="font-semibold">{order.itemCount}</span>
+              </p>
             </div>
           ))}
+          {nextCursor && (
+            <button
+              onClick={() => fetchOrders(nextCursor)}
+              className="w-full bg-blue-500 text-white py-2 rounded hover:bg-blue-600"
+            >
+              Load more
+            </button>
+          )}
         </div>
       )}
     </div>
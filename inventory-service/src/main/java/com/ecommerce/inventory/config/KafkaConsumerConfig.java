@@ -0,0 +1,26 @@
+package com.ecommerce.inventory.config;
+
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+
+@Configuration
+public class KafkaConsumerConfig {
+    /**
+     * Delivers each poll as one list so order lifecycle events can be applied per product in a
+     * single transaction; shares the consumer settings of the default factory.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConsumerFactory<Object, Object> consumerFactory, KafkaProperties kafkaProperties) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        if (kafkaProperties.getListener().getConcurrency() != null) {
+            factory.setConcurrency(kafkaProperties.getListener().getConcurrency());
+        }
+        return factory;
+    }
+}
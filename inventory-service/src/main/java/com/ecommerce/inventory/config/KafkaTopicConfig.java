@@ -0,0 +1,35 @@
+package com.ecommerce.inventory.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+    public static final String RESERVATION_FAILED_TOPIC = "reservation-failed";
+    public static final String STOCK_LEVELS_TOPIC = "inventory-stock-levels";
+
+    @Bean
+    public NewTopic reservationFailedTopic(@Value("${kafka.topics.reservation-failed.partitions:12}") int partitions,
+                                           @Value("${kafka.topics.reservation-failed.replicas:1}") int replicas) {
+        return TopicBuilder.name(RESERVATION_FAILED_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    /**
+     * Compacted: consumers only need the latest level per product.
+     */
+    @Bean
+    public NewTopic stockLevelsTopic(@Value("${kafka.topics.stock-levels.partitions:12}") int partitions,
+                                     @Value("${kafka.topics.stock-levels.replicas:1}") int replicas) {
+        return TopicBuilder.name(STOCK_LEVELS_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .build();
+    }
+}
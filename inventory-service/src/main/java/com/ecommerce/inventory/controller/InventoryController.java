@@ -1,17 +1,29 @@
 package com.ecommerce.inventory.controller;
 
+import com.ecommerce.inventory.dto.AvailabilityResponse;
+import com.ecommerce.inventory.dto.CursorPage;
+import com.ecommerce.inventory.dto.InventoryExportFormat;
 import com.ecommerce.inventory.dto.InventoryRequest;
 import com.ecommerce.inventory.dto.InventoryResponse;
 import com.ecommerce.inventory.dto.ReserveStockRequest;
+import com.ecommerce.inventory.dto.StockImportMode;
+import com.ecommerce.inventory.dto.StockImportResponse;
+import com.ecommerce.inventory.service.InventoryExportService;
+import com.ecommerce.inventory.service.InventoryImportService;
 import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.SplitStockCounter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -20,6 +32,9 @@ import java.util.List;
 @Tag(name = "Inventory", description = "Inventory Management API")
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final InventoryImportService inventoryImportService;
+    private final InventoryExportService inventoryExportService;
+    private final SplitStockCounter splitStockCounter;
 
     @PostMapping
     @Operation(summary = "Create inventory entry")
@@ -27,10 +42,44 @@ public class InventoryController {
         return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.createInventory(request));
     }
 
+    /**
+     * Streams a CSV ({@code productId,quantity}, optional header) or NDJSON
+     * ({@code {"productId":1,"quantity":5}} per line) stock file.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Bulk import or adjust stock levels")
+    public ResponseEntity<StockImportResponse> importStock(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           @RequestParam(defaultValue = "SET") StockImportMode mode,
+                                                           InputStream body) {
+        boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON);
+        return ResponseEntity.ok(inventoryImportService.importStock(body, ndjson, mode));
+    }
+
     @GetMapping
-    @Operation(summary = "Get all inventory")
-    public ResponseEntity<List<InventoryResponse>> getAllInventory() {
-        return ResponseEntity.ok(inventoryService.getAllInventory());
+    @Operation(summary = "Get inventory in product ID order, one cursor page at a time")
+    public ResponseEntity<CursorPage<InventoryResponse>> getInventoryPage(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer size,
+                                                                          @RequestParam(required = false) Integer lowStockThreshold,
+                                                                          @RequestParam(defaultValue = "false") boolean reservedOnly) {
+        return ResponseEntity.ok(inventoryService.getInventoryPage(cursor, size, lowStockThreshold, reservedOnly));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream all inventory matching the filters as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportInventory(@RequestParam(defaultValue = "NDJSON") InventoryExportFormat format,
+                                                                 @RequestParam(required = false) Integer lowStockThreshold,
+                                                                 @RequestParam(defaultValue = "false") boolean reservedOnly) {
+        boolean csv = format == InventoryExportFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=inventory." + (csv ? "csv" : "ndjson"))
+                .body(out -> inventoryExportService.exportInventory(out, format, lowStockThreshold, reservedOnly));
+    }
+
+    @GetMapping("/availability")
+    @Operation(summary = "Get available quantities for several products")
+    public ResponseEntity<List<AvailabilityResponse>> getAvailability(@RequestParam List<Long> productIds) {
+        return ResponseEntity.ok(inventoryService.getAvailability(productIds));
     }
 
     @GetMapping("/product/{productId}")
@@ -39,6 +88,24 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getInventoryByProductId(productId));
     }
 
+    /**
+     * Spreads a hot product's stock over {@code count} bucket rows so concurrent reservations stop
+     * queueing on a single row lock.
+     */
+    @PostMapping("/product/{productId}/buckets")
+    @Operation(summary = "Split a product's stock into bucket rows")
+    public ResponseEntity<InventoryResponse> splitInventory(@PathVariable Long productId, @RequestParam int count) {
+        splitStockCounter.split(productId, count);
+        return ResponseEntity.ok(inventoryService.getInventoryByProductId(productId));
+    }
+
+    @DeleteMapping("/product/{productId}/buckets")
+    @Operation(summary = "Merge a product's bucket rows back into one")
+    public ResponseEntity<InventoryResponse> mergeInventory(@PathVariable Long productId) {
+        splitStockCounter.merge(productId);
+        return ResponseEntity.ok(inventoryService.getInventoryByProductId(productId));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update inventory")
     public ResponseEntity<InventoryResponse> updateInventory(@PathVariable Long id,
@@ -47,7 +114,7 @@ public class InventoryController {
     }
 
     @PostMapping("/reserve")
-    @Operation(summary = "Reserve stock")
+    @Operation(summary = "Reserve stock; released again after the reservation TTL (30 minutes by default)")
     public ResponseEntity<InventoryResponse> reserveStock(@Valid @RequestBody ReserveStockRequest request) {
         return ResponseEntity.ok(inventoryService.reserveStock(request.getProductId(), request.getQuantity()));
     }
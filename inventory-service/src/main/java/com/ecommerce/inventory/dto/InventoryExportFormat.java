@@ -0,0 +1,8 @@
+package com.ecommerce.inventory.dto;
+
+public enum InventoryExportFormat {
+    /** One {@link InventoryResponse} JSON object per line. */
+    NDJSON,
+    /** Header row followed by one row per product. */
+    CSV
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaidEvent {
+    private Long orderId;
+    private Long userId;
+    private BigDecimal totalAmount;
+    private List<OrderItemDto> items;
+}
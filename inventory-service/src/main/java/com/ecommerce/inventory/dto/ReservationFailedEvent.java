@@ -0,0 +1,21 @@
+package com.ecommerce.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationFailedEvent {
+    private Long orderId;
+    private Long userId;
+    private String reason;
+    private List<OrderItemDto> items;
+    private LocalDateTime failedAt;
+}
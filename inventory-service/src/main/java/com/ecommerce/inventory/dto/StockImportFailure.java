@@ -0,0 +1,14 @@
+package com.ecommerce.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockImportFailure {
+    private long line;
+    private Long productId;
+    private String message;
+}
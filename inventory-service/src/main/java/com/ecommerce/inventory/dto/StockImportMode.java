@@ -0,0 +1,8 @@
+package com.ecommerce.inventory.dto;
+
+public enum StockImportMode {
+    /** Quantity replaces the on-hand quantity; unknown products are created. */
+    SET,
+    /** Quantity is a signed delta applied to existing products. */
+    ADJUST
+}
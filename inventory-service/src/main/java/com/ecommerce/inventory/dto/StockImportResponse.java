@@ -0,0 +1,21 @@
+package com.ecommerce.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockImportResponse {
+    private long rowsRead;
+    private long created;
+    private long updated;
+    private long failed;
+    // capped; failed holds the full count
+    private List<StockImportFailure> failures;
+}
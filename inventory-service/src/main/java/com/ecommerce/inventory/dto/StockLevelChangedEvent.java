@@ -0,0 +1,18 @@
+package com.ecommerce.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelChangedEvent {
+    private Long productId;
+    private Integer availableQuantity;
+    private LocalDateTime updatedAt;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 
@@ -16,7 +17,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Inventory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -28,6 +30,15 @@ public class Inventory {
     @Column(nullable = false)
     private Integer reservedQuantity = 0;
 
+    // set while a hot product's stock is spread over inventory_buckets; this row then holds the remainder
+    private Integer bucketCount;
+
+    @Formula("(SELECT COALESCE(SUM(b.quantity), 0) FROM inventory_buckets b WHERE b.product_id = product_id)")
+    private Integer bucketQuantity;
+
+    @Formula("(SELECT COALESCE(SUM(b.reserved_quantity), 0) FROM inventory_buckets b WHERE b.product_id = product_id)")
+    private Integer bucketReservedQuantity;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -45,7 +56,15 @@ public class Inventory {
         updatedAt = LocalDateTime.now();
     }
 
+    public Integer getTotalQuantity() {
+        return quantity + (bucketQuantity != null ? bucketQuantity : 0);
+    }
+
+    public Integer getTotalReservedQuantity() {
+        return reservedQuantity + (bucketReservedQuantity != null ? bucketReservedQuantity : 0);
+    }
+
     public Integer getAvailableQuantity() {
-        return quantity - reservedQuantity;
+        return getTotalQuantity() - getTotalReservedQuantity();
     }
 }
\ No newline at end of file
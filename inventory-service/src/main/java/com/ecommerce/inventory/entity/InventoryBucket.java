@@ -0,0 +1,45 @@
+package com.ecommerce.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One slice of a hot product's stock; see {@link Inventory#getBucketCount()}.
+ */
+@Entity
+@Table(name = "inventory_buckets", indexes = {
+    @Index(name = "idx_bucket_product_index", columnList = "productId,bucketIndex", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_bucket_seq")
+    @SequenceGenerator(name = "inventory_bucket_seq", sequenceName = "inventory_bucket_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer bucketIndex;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Integer reservedQuantity = 0;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "processed_events", indexes = {
+    @Index(name = "idx_processed_event_order_type", columnList = "orderId,eventType", unique = true),
+    @Index(name = "idx_processed_event_processed_at", columnList = "processedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processed_event_seq")
+    @SequenceGenerator(name = "processed_event_seq", sequenceName = "processed_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private EventType eventType;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        processedAt = LocalDateTime.now();
+    }
+
+    public enum EventType {
+        ORDER_CREATED, ORDER_PAID, ORDER_CANCELLED
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.entity.InventoryBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryBucketRepository extends JpaRepository<InventoryBucket, Long> {
+    @Modifying
+    @Query("UPDATE InventoryBucket b SET b.reservedQuantity = b.reservedQuantity + :quantity WHERE b.productId = :productId AND b.bucketIndex = :bucketIndex AND (b.quantity - b.reservedQuantity) >= :quantity")
+    int reserveQuantity(@Param("productId") Long productId, @Param("bucketIndex") Integer bucketIndex, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE InventoryBucket b SET b.reservedQuantity = b.reservedQuantity - :quantity WHERE b.productId = :productId AND b.bucketIndex = :bucketIndex AND b.reservedQuantity >= :quantity")
+    int releaseReservedQuantity(@Param("productId") Long productId, @Param("bucketIndex") Integer bucketIndex, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE InventoryBucket b SET b.reservedQuantity = b.reservedQuantity - :quantity, b.quantity = b.quantity - :quantity WHERE b.productId = :productId AND b.bucketIndex = :bucketIndex AND b.reservedQuantity >= :quantity")
+    int releaseAndDecreaseQuantity(@Param("productId") Long productId, @Param("bucketIndex") Integer bucketIndex, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE InventoryBucket b SET b.quantity = b.quantity - :quantity WHERE b.productId = :productId AND b.bucketIndex = :bucketIndex AND (b.quantity - b.reservedQuantity) >= :quantity")
+    int decreaseQuantity(@Param("productId") Long productId, @Param("bucketIndex") Integer bucketIndex, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE InventoryBucket b SET b.quantity = b.quantity + :quantityDelta, b.reservedQuantity = b.reservedQuantity + :reservedDelta WHERE b.productId = :productId AND b.bucketIndex = :bucketIndex")
+    int adjustLevels(@Param("productId") Long productId, @Param("bucketIndex") Integer bucketIndex,
+                     @Param("quantityDelta") Integer quantityDelta, @Param("reservedDelta") Integer reservedDelta);
+
+    @Query(value = "SELECT bucket_index AS bucketIndex, quantity, reserved_quantity AS reservedQuantity FROM inventory_buckets WHERE product_id = :productId ORDER BY bucket_index", nativeQuery = true)
+    List<StockLevelView> findLevels(@Param("productId") Long productId);
+
+    @Query(value = "SELECT bucket_index AS bucketIndex, quantity, reserved_quantity AS reservedQuantity FROM inventory_buckets WHERE product_id = :productId ORDER BY bucket_index FOR UPDATE", nativeQuery = true)
+    List<StockLevelView> lockLevels(@Param("productId") Long productId);
+
+    @Query(value = "SELECT bucket_index AS bucketIndex, quantity, reserved_quantity AS reservedQuantity FROM inventory_buckets WHERE product_id = :productId AND bucket_index >= :fromIndex ORDER BY bucket_index FOR UPDATE", nativeQuery = true)
+    List<StockLevelView> lockLevelsFrom(@Param("productId") Long productId, @Param("fromIndex") Integer fromIndex);
+
+    // Never waits, for callers already holding a higher bucket of the product
+    @Query(value = "SELECT bucket_index AS bucketIndex, quantity, reserved_quantity AS reservedQuantity FROM inventory_buckets WHERE product_id = :productId AND bucket_index < :belowIndex ORDER BY bucket_index FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StockLevelView> lockUnlockedLevelsBelow(@Param("productId") Long productId, @Param("belowIndex") Integer belowIndex);
+
+    @Modifying
+    @Query("DELETE FROM InventoryBucket b WHERE b.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.inventory.repository;
 
 import com.ecommerce.inventory.entity.Inventory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
@@ -9,20 +10,51 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByProductId(Long productId);
 
+    boolean existsByProductId(Long productId);
+
+    List<Inventory> findByProductIdIn(Collection<Long> productIds);
+
+    // Keyset pages over idx_product_id; the Pageable only carries the LIMIT
+    @Query("SELECT i FROM Inventory i WHERE i.productId > :afterProductId " +
+           "AND (:lowStockThreshold IS NULL OR " +
+           "i.quantity + i.bucketQuantity - i.reservedQuantity - i.bucketReservedQuantity <= :lowStockThreshold) " +
+           "AND (:reservedOnly = false OR i.reservedQuantity + i.bucketReservedQuantity > 0) " +
+           "ORDER BY i.productId")
+    List<Inventory> findPageAfter(@Param("afterProductId") Long afterProductId,
+                                  @Param("lowStockThreshold") Integer lowStockThreshold,
+                                  @Param("reservedOnly") boolean reservedOnly,
+                                  Pageable pageable);
+
+    // Locks in product ID order like findAllByProductIdInWithLock, without loading the bucket formulas
+    @Query(value = "SELECT product_id AS productId, quantity, reserved_quantity AS reservedQuantity, bucket_count AS bucketCount " +
+                   "FROM inventory WHERE product_id IN (:productIds) ORDER BY product_id FOR UPDATE", nativeQuery = true)
+    List<LockedStock> lockStock(@Param("productIds") Collection<Long> productIds);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT i FROM Inventory i WHERE i.productId = :productId")
     Optional<Inventory> findByProductIdWithLock(@Param("productId") Long productId);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.productId IN :productIds ORDER BY i.productId")
+    List<Inventory> findAllByProductIdInWithLock(@Param("productIds") Collection<Long> productIds);
+
+    // Only free units can be taken, as for buckets; reserved units belong to their reservations
     @Modifying
-    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :quantity WHERE i.productId = :productId AND i.quantity >= :quantity")
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :quantity WHERE i.productId = :productId AND (i.quantity - i.reservedQuantity) >= :quantity")
     int decreaseQuantity(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
+    @Modifying
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :quantity WHERE i.productId = :productId")
+    int increaseQuantity(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
     @Modifying
     @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity + :quantity WHERE i.productId = :productId AND (i.quantity - i.reservedQuantity) >= :quantity")
     int reserveQuantity(@Param("productId") Long productId, @Param("quantity") Integer quantity);
@@ -34,4 +66,45 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Modifying
     @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity - :quantity WHERE i.productId = :productId AND i.reservedQuantity >= :quantity")
     int releaseReservedQuantity(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :quantityDelta, i.reservedQuantity = i.reservedQuantity + :reservedDelta WHERE i.productId = :productId")
+    int adjustLevels(@Param("productId") Long productId, @Param("quantityDelta") Integer quantityDelta,
+                     @Param("reservedDelta") Integer reservedDelta);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.bucketCount = :bucketCount WHERE i.productId = :productId")
+    int updateBucketCount(@Param("productId") Long productId, @Param("bucketCount") Integer bucketCount);
+
+    @Query("SELECT i.bucketCount FROM Inventory i WHERE i.productId = :productId")
+    Optional<Integer> findBucketCount(@Param("productId") Long productId);
+
+    @Query("SELECT i.productId AS productId, i.bucketCount AS bucketCount FROM Inventory i WHERE i.bucketCount IS NOT NULL")
+    List<BucketedProduct> findBucketedProducts();
+
+    @Query("SELECT i.productId AS productId, i.bucketCount AS bucketCount FROM Inventory i " +
+           "WHERE i.productId IN :productIds AND i.bucketCount IS NOT NULL")
+    List<BucketedProduct> findBucketedProductsIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query(value = "SELECT NULL AS bucketIndex, quantity, reserved_quantity AS reservedQuantity FROM inventory WHERE product_id = :productId", nativeQuery = true)
+    Optional<StockLevelView> findLevel(@Param("productId") Long productId);
+
+    @Query(value = "SELECT NULL AS bucketIndex, quantity, reserved_quantity AS reservedQuantity FROM inventory WHERE product_id = :productId FOR UPDATE", nativeQuery = true)
+    Optional<StockLevelView> lockLevel(@Param("productId") Long productId);
+
+    interface LockedStock {
+        Long getProductId();
+
+        Integer getQuantity();
+
+        Integer getReservedQuantity();
+
+        Integer getBucketCount();
+    }
+
+    interface BucketedProduct {
+        Long getProductId();
+
+        Integer getBucketCount();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, Long> {
+    @Query("SELECT p.orderId FROM ProcessedEvent p WHERE p.eventType = :eventType AND p.orderId IN :orderIds")
+    List<Long> findProcessedOrderIds(@Param("eventType") ProcessedEvent.EventType eventType,
+                                     @Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent p WHERE p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.inventory.repository;
+
+/**
+ * Quantities of an inventory row or bucket, read without loading the entity.
+ */
+public interface StockLevelView {
+    Integer getBucketIndex();
+
+    Integer getQuantity();
+
+    Integer getReservedQuantity();
+
+    default int getFreeQuantity() {
+        return getQuantity() - getReservedQuantity();
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.id IN :ids ORDER BY r.id")
+    List<StockReservation> findAllByIdInWithLock(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.orderId IN :orderIds ORDER BY r.id")
+    List<StockReservation> findAllByOrderIdInWithLock(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT r.id FROM StockReservation r WHERE r.status = :status AND r.expiresAt <= :now ORDER BY r.id")
+    List<Long> findIdsByStatusAndExpiresAtBefore(@Param("status") StockReservation.ReservationStatus status,
+                                                 @Param("now") LocalDateTime now,
+                                                 Pageable pageable);
+
+    @Query("SELECT r FROM StockReservation r WHERE r.status = :status AND r.id > :afterId ORDER BY r.id")
+    List<StockReservation> findByStatusAfterId(@Param("status") StockReservation.ReservationStatus status,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    // updatedAt is when the reservation reached its current status
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.status IN :statuses AND r.updatedAt < :cutoff")
+    int deleteByStatusInUpdatedBefore(@Param("statuses") Collection<StockReservation.ReservationStatus> statuses,
+                                      @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.inventory.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-TTL copy of available quantities for listing pages. Every stock change invalidates the
+ * affected products once its transaction commits, which is also where {@link StockLevelPublisher}
+ * learns about it. An invalidation leaves a stamped tombstone for each product, and a load only
+ * replaces an entry whose stamp is not newer than the load's own, so a slow reader cannot put back a
+ * value from before the change while loads of unrelated products are unaffected.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityCache {
+    private final StockLevelPublisher stockLevelPublisher;
+    private final Map<Long, CachedAvailability> cache = new ConcurrentHashMap<>();
+    // orders loads against invalidations; a load stamped before an invalidation never overwrites it
+    private final AtomicLong clock = new AtomicLong();
+
+    @Value("${inventory.availability.cache.ttl-ms:2000}")
+    private long ttlMs;
+
+    @Value("${inventory.availability.cache.max-entries:50000}")
+    private int maxEntries;
+
+    public Integer get(Long productId, long now) {
+        CachedAvailability cached = cache.get(productId);
+        return cached != null && cached.availableQuantity() != null && now - cached.loadedAt() < ttlMs
+                ? cached.availableQuantity() : null;
+    }
+
+    /**
+     * Call before reading the table; pass the result to {@link #putAll}.
+     */
+    public Load startLoad() {
+        return new Load(clock.get(), System.currentTimeMillis());
+    }
+
+    /**
+     * Stores the loaded quantities, except for products invalidated after {@code load} started. A load
+     * that took longer than the TTL is dropped, since the tombstones it raced with may be gone.
+     */
+    public void putAll(Map<Long, Integer> availability, Load load) {
+        long now = System.currentTimeMillis();
+        if (now - load.startedAt() >= ttlMs) {
+            return;
+        }
+        availability.forEach((productId, quantity) -> {
+            CachedAvailability loaded = new CachedAvailability(quantity, load.stamp(), load.startedAt());
+            cache.compute(productId, (id, existing) -> existing != null && existing.stamp() > load.stamp() ? existing : loaded);
+        });
+        evictIfFull(now);
+    }
+
+    public void invalidateAfterCommit(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(ids);
+                }
+            });
+        } else {
+            invalidate(ids);
+        }
+    }
+
+    private void invalidate(List<Long> productIds) {
+        CachedAvailability tombstone = new CachedAvailability(null, clock.incrementAndGet(), System.currentTimeMillis());
+        productIds.forEach(productId -> cache.compute(productId, (id, existing) ->
+                existing != null && existing.stamp() > tombstone.stamp() ? existing : tombstone));
+        stockLevelPublisher.markChanged(productIds);
+    }
+
+    // Tombstones only go once they expire; if that is not enough, cached values are dropped instead
+    private void evictIfFull(long now) {
+        if (cache.size() <= maxEntries) {
+            return;
+        }
+        cache.values().removeIf(cached -> now - cached.loadedAt() >= ttlMs);
+        if (cache.size() > maxEntries) {
+            cache.values().removeIf(cached -> cached.availableQuantity() != null);
+        }
+    }
+
+    public record Load(long stamp, long startedAt) {}
+
+    // availableQuantity is null for a tombstone
+    private record CachedAvailability(Integer availableQuantity, long stamp, long loadedAt) {}
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.dto.InventoryExportFormat;
+import com.ecommerce.inventory.dto.InventoryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the whole inventory table to a response stream. Rows are streamed from the server one at a
+ * time (Connector/J's streaming mode, fetch size {@link Integer#MIN_VALUE} on a forward-only,
+ * read-only statement) and written as they arrive, without entities or a persistence context, so
+ * memory use does not depend on the number of products. Only this statement streams; the rest of
+ * the service keeps the driver's default client-side statements.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryExportService {
+    private static final int STREAM_ROWS = Integer.MIN_VALUE;
+    private static final String CSV_HEADER = "id,productId,quantity,reservedQuantity,availableQuantity,createdAt,updatedAt";
+    // bucket rows are folded in the same way as the @Formula columns on Inventory
+    private static final String SELECT_SQL = "SELECT * FROM (SELECT i.id, i.product_id, i.created_at, i.updated_at, " +
+            "i.quantity + (SELECT COALESCE(SUM(b.quantity), 0) FROM inventory_buckets b WHERE b.product_id = i.product_id) AS quantity, " +
+            "i.reserved_quantity + (SELECT COALESCE(SUM(b.reserved_quantity), 0) FROM inventory_buckets b WHERE b.product_id = i.product_id) AS reserved_quantity " +
+            "FROM inventory i) t";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void exportInventory(OutputStream out, InventoryExportFormat format, Integer lowStockThreshold,
+                                boolean reservedOnly) {
+        long started = System.currentTimeMillis();
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (lowStockThreshold != null) {
+            conditions.add("quantity - reserved_quantity <= ?");
+            args.add(lowStockThreshold);
+        }
+        if (reservedOnly) {
+            conditions.add("reserved_quantity > 0");
+        }
+        String sql = SELECT_SQL + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY product_id";
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] rows = {0};
+        try {
+            if (format == InventoryExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(STREAM_ROWS);
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    writeRow(writer, format, toResponse(rs));
+                } catch (IOException e) {
+                    // the client went away; abandon the cursor instead of reading the rest of the table
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+            writer.flush();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Inventory export aborted after {} rows: {}", rows[0], e.getMessage());
+            return;
+        }
+        log.info("Exported {} inventory rows as {} in {} ms", rows[0], format, System.currentTimeMillis() - started);
+    }
+
+    private void writeRow(Writer writer, InventoryExportFormat format, InventoryResponse row) throws IOException {
+        if (format == InventoryExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+        } else {
+            writer.write(row.getId() + "," + row.getProductId() + "," + row.getQuantity() + ","
+                    + row.getReservedQuantity() + "," + row.getAvailableQuantity() + ","
+                    + row.getCreatedAt() + "," + row.getUpdatedAt());
+        }
+        writer.write('\n');
+    }
+
+    private InventoryResponse toResponse(ResultSet rs) throws SQLException {
+        int quantity = rs.getInt("quantity");
+        int reserved = rs.getInt("reserved_quantity");
+        return InventoryResponse.builder()
+                .id(rs.getLong("id"))
+                .productId(rs.getLong("product_id"))
+                .quantity(quantity)
+                .reservedQuantity(reserved)
+                .availableQuantity(quantity - reserved)
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                .build();
+    }
+}
@@ -0,0 +1,281 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.dto.StockImportFailure;
+import com.ecommerce.inventory.dto.StockImportMode;
+import com.ecommerce.inventory.dto.StockImportResponse;
+import com.ecommerce.inventory.entity.Inventory;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies warehouse stock files line by line. Rows are buffered per chunk, and each chunk is one
+ * transaction: existing products are locked and checked with one SELECT and updated with one JDBC
+ * batch, new ones are inserted through a batched {@code saveAll}, and the persistence context is
+ * cleared afterwards, so memory stays flat however long the file is. Bad rows are reported at the end instead of aborting the import.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryImportService {
+    private static final String SET_QUANTITY_SQL =
+            "UPDATE inventory SET quantity = ?, updated_at = ? WHERE product_id = ? AND ? >= reserved_quantity AND bucket_count IS NULL";
+    private static final String ADJUST_QUANTITY_SQL =
+            "UPDATE inventory SET quantity = quantity + ?, updated_at = ? WHERE product_id = ? AND quantity + ? >= reserved_quantity";
+
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final AvailabilityCache availabilityCache;
+    private final ObjectProvider<StockReservationEngine> reservationEngine;
+
+    @Value("${inventory.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${inventory.import.max-reported-failures:1000}")
+    private int maxReportedFailures;
+
+    public StockImportResponse importStock(InputStream body, boolean ndjson, StockImportMode mode) {
+        long started = System.currentTimeMillis();
+        Progress progress = new Progress();
+        Map<Long, Row> chunk = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (!ndjson && lineNumber == 1 && line.trim().toLowerCase().startsWith("productid"))) {
+                    continue;
+                }
+                progress.rowsRead++;
+
+                Row row;
+                try {
+                    row = ndjson ? parseJson(line, lineNumber) : parseCsv(line, lineNumber);
+                    if (mode == StockImportMode.SET && row.quantity() < 0) {
+                        throw new IllegalArgumentException("quantity must not be negative");
+                    }
+                } catch (IllegalArgumentException e) {
+                    progress.fail(new StockImportFailure(lineNumber, null, e.getMessage()));
+                    continue;
+                }
+
+                // repeated products collapse within a chunk: last value wins for SET, deltas add up for ADJUST
+                chunk.merge(row.productId(), row, (previous, current) -> mode == StockImportMode.SET
+                        ? current
+                        : new Row(current.line(), current.productId(), previous.quantity() + current.quantity()));
+                if (chunk.size() >= chunkSize) {
+                    applyChunk(chunk, mode, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read stock import after " + progress.rowsRead + " rows: " + e.getMessage(), e);
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, mode, progress);
+        }
+
+        log.info("Stock import ({}) read {} rows: {} created, {} updated, {} failed in {} ms", mode, progress.rowsRead,
+                progress.created, progress.updated, progress.failed, System.currentTimeMillis() - started);
+        return StockImportResponse.builder()
+                .rowsRead(progress.rowsRead)
+                .created(progress.created)
+                .updated(progress.updated)
+                .failed(progress.failed)
+                .failures(progress.failures)
+                .build();
+    }
+
+    private void applyChunk(Map<Long, Row> chunk, StockImportMode mode, Progress progress) {
+        List<Row> rows = new ArrayList<>(chunk.values());
+        ChunkResult result = new ChunkResult();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (mode == StockImportMode.SET) {
+                    applySet(rows, result);
+                } else {
+                    applyAdjust(rows, result);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (DataAccessException e) {
+            log.warn("Stock import chunk of {} rows failed: {}", rows.size(), e.getMostSpecificCause().getMessage());
+            rows.forEach(row -> progress.fail(new StockImportFailure(row.line(), row.productId(),
+                    "Chunk rejected: " + e.getMostSpecificCause().getMessage())));
+            return;
+        }
+
+        progress.created += result.created;
+        progress.updated += result.updated;
+        result.failures.forEach(progress::fail);
+        availabilityCache.invalidateAfterCommit(chunk.keySet());
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        if (engine != null) {
+            chunk.keySet().forEach(engine::invalidateAfterCommit);
+        }
+    }
+
+    private void applySet(List<Row> rows, ChunkResult result) {
+        Map<Long, InventoryRepository.LockedStock> existing = lockExisting(rows);
+        List<Row> updates = new ArrayList<>();
+        List<Inventory> inserts = new ArrayList<>();
+        for (Row row : rows) {
+            InventoryRepository.LockedStock stock = existing.get(row.productId());
+            if (stock == null) {
+                Inventory inventory = new Inventory();
+                inventory.setProductId(row.productId());
+                inventory.setQuantity(row.quantity());
+                inventory.setReservedQuantity(0);
+                inserts.add(inventory);
+            } else if (stock.getBucketCount() != null) {
+                result.reject(row, "product is split into buckets");
+            } else if (row.quantity() < stock.getReservedQuantity()) {
+                result.reject(row, "quantity is below the reserved quantity");
+            } else {
+                updates.add(row);
+            }
+        }
+
+        inventoryRepository.saveAll(inserts);
+        result.created += inserts.size();
+        batchUpdate(SET_QUANTITY_SQL, updates, result);
+    }
+
+    private void applyAdjust(List<Row> rows, ChunkResult result) {
+        Map<Long, InventoryRepository.LockedStock> existing = lockExisting(rows);
+        List<Row> updates = new ArrayList<>();
+        for (Row row : rows) {
+            InventoryRepository.LockedStock stock = existing.get(row.productId());
+            if (stock == null) {
+                result.reject(row, "unknown product");
+            } else if (stock.getQuantity() + row.quantity() < stock.getReservedQuantity()) {
+                result.reject(row, "adjustment would drop below the reserved quantity");
+            } else {
+                updates.add(row);
+            }
+        }
+        batchUpdate(ADJUST_QUANTITY_SQL, updates, result);
+    }
+
+    /**
+     * Locks the chunk's existing rows before validating them, so every row that reaches the batch
+     * UPDATE is known to match. The driver may answer a rewritten batch with SUCCESS_NO_INFO (-2)
+     * instead of real counts; with the rows locked and checked, that can safely count as updated.
+     */
+    private Map<Long, InventoryRepository.LockedStock> lockExisting(List<Row> rows) {
+        Map<Long, InventoryRepository.LockedStock> existing = new HashMap<>();
+        for (InventoryRepository.LockedStock stock : inventoryRepository.lockStock(rows.stream().map(Row::productId).toList())) {
+            existing.put(stock.getProductId(), stock);
+        }
+        return existing;
+    }
+
+    private void batchUpdate(String sql, List<Row> rows, ChunkResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.quantity());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, row.productId());
+            ps.setInt(4, row.quantity());
+        });
+        int[] rowCounts = counts[0];
+        for (int i = 0; i < rows.size(); i++) {
+            // the WHERE clauses repeat the checks made under the lock, so 0 is not expected here
+            if (rowCounts[i] == 0) {
+                result.reject(rows.get(i), "row changed during the import");
+            } else {
+                result.updated++;
+            }
+        }
+    }
+
+    private Row parseCsv(String line, long lineNumber) {
+        String[] fields = line.split(",");
+        if (fields.length != 2) {
+            throw new IllegalArgumentException("expected productId,quantity");
+        }
+        return new Row(lineNumber, parseProductId(fields[0].trim()), Integer.parseInt(fields[1].trim()));
+    }
+
+    private Row parseJson(String line, long lineNumber) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+        JsonNode productId = node.get("productId");
+        JsonNode quantity = node.get("quantity");
+        if (productId == null || !productId.canConvertToLong() || quantity == null || !quantity.canConvertToInt()) {
+            throw new IllegalArgumentException("expected integer productId and quantity");
+        }
+        return new Row(lineNumber, parseProductId(productId.asText()), quantity.asInt());
+    }
+
+    private Long parseProductId(String value) {
+        long productId = Long.parseLong(value);
+        if (productId <= 0) {
+            throw new IllegalArgumentException("productId must be positive");
+        }
+        return productId;
+    }
+
+    private record Row(long line, Long productId, int quantity) {}
+
+    private static class ChunkResult {
+        private long created;
+        private long updated;
+        private final List<StockImportFailure> failures = new ArrayList<>();
+
+        private void reject(Row row, String reason) {
+            failures.add(new StockImportFailure(row.line(), row.productId(), reason));
+        }
+    }
+
+    private class Progress {
+        private long rowsRead;
+        private long created;
+        private long updated;
+        private long failed;
+        private final List<StockImportFailure> failures = new ArrayList<>();
+
+        private void fail(StockImportFailure failure) {
+            failed++;
+            if (failures.size() < maxReportedFailures) {
+                failures.add(failure);
+            }
+        }
+    }
+}
@@ -1,23 +1,69 @@
 package com.ecommerce.inventory.service;
 
+import com.ecommerce.inventory.dto.AvailabilityResponse;
+import com.ecommerce.inventory.dto.CursorPage;
 import com.ecommerce.inventory.dto.InventoryRequest;
 import com.ecommerce.inventory.dto.InventoryResponse;
+import com.ecommerce.inventory.dto.OrderCancelledEvent;
 import com.ecommerce.inventory.dto.OrderCreatedEvent;
 import com.ecommerce.inventory.dto.OrderItemDto;
+import com.ecommerce.inventory.dto.OrderPaidEvent;
 import com.ecommerce.inventory.entity.Inventory;
+import com.ecommerce.inventory.entity.ProcessedEvent;
+import com.ecommerce.inventory.entity.StockReservation;
 import com.ecommerce.inventory.exception.InsufficientStockException;
 import com.ecommerce.inventory.exception.ResourceNotFoundException;
 import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.StockReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class InventoryService {
     private final InventoryRepository inventoryRepository;
+    private final ObjectProvider<StockReservationEngine> reservationEngine;
+    private final ProcessedEventRegistry processedEventRegistry;
+    private final StockReservationRepository reservationRepository;
+    private final ReservationExpiryScheduler expiryScheduler;
+    private final AvailabilityCache availabilityCache;
+    private final SplitStockCounter splitStockCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${inventory.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${inventory.reservations.ttl-minutes:30}")
+    private long reservationTtlMinutes;
+
+    @Value("${inventory.reservations.untracked-before-order-id:0}")
+    private long untrackedBeforeOrderId;
+
+    @Value("${inventory.availability.max-ids:500}")
+    private int maxAvailabilityIds;
 
     @Transactional
     public InventoryResponse createInventory(InventoryRequest request) {
@@ -31,6 +77,7 @@ public class InventoryService {
         inventory.setReservedQuantity(0);
 
         inventory = inventoryRepository.save(inventory);
+        availabilityCache.invalidateAfterCommit(List.of(inventory.getProductId()));
         return mapToResponse(inventory);
     }
 
@@ -40,72 +87,447 @@ public class InventoryService {
         return mapToResponse(inventory);
     }
 
-    public List<InventoryResponse> getAllInventory() {
-        return inventoryRepository.findAll().stream()
-                .map(this::mapToResponse)
+    /**
+     * Available quantities for a listing page in request order; products without an inventory row
+     * report zero. Answered from {@link AvailabilityCache} where possible, misses in one IN query.
+     */
+    public List<AvailabilityResponse> getAvailability(List<Long> productIds) {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        if (ids.size() > maxAvailabilityIds) {
+            throw new IllegalArgumentException("At most " + maxAvailabilityIds + " product IDs can be requested at once");
+        }
+
+        long now = System.currentTimeMillis();
+        Map<Long, Integer> availability = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long productId : ids) {
+            Integer cached = availabilityCache.get(productId, now);
+            if (cached != null) {
+                availability.put(productId, cached);
+            } else {
+                misses.add(productId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            AvailabilityCache.Load load = availabilityCache.startLoad();
+            Map<Long, Integer> loaded = new HashMap<>();
+            misses.forEach(productId -> loaded.put(productId, 0));
+            for (Inventory inventory : inventoryRepository.findByProductIdIn(misses)) {
+                loaded.put(inventory.getProductId(), inventory.getAvailableQuantity());
+            }
+            availabilityCache.putAll(loaded, load);
+            availability.putAll(loaded);
+        }
+
+        return ids.stream()
+                .map(productId -> AvailabilityResponse.builder()
+                        .productId(productId)
+                        .availableQuantity(availability.get(productId))
+                        .build())
                 .toList();
     }
 
+    /**
+     * Lists inventory in product ID order, optionally only rows at or below {@code lowStockThreshold}
+     * available units or with reserved units. The cursor is the last product ID of the previous page.
+     */
+    public CursorPage<InventoryResponse> getInventoryPage(String cursor, Integer size, Integer lowStockThreshold,
+                                                         boolean reservedOnly) {
+        int pageSize = Math.min(size != null && size > 0 ? size : defaultPageSize, maxPageSize);
+        long afterProductId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterProductId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        List<Inventory> rows = inventoryRepository.findPageAfter(afterProductId, lowStockThreshold, reservedOnly,
+                PageRequest.of(0, pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? rows.get(rows.size() - 1).getProductId().toString() : null;
+        return new CursorPage<>(rows.stream().map(this::mapToResponse).toList(), nextCursor, hasNext);
+    }
+
     @Transactional
     public InventoryResponse updateInventory(Long id, InventoryRequest request) {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory", "id", id.toString()));
+        if (inventory.getBucketCount() != null) {
+            throw new IllegalStateException("Inventory for product ID " + inventory.getProductId()
+                    + " is split into buckets; merge it before setting the quantity");
+        }
 
         inventory.setQuantity(request.getQuantity());
 
         inventory = inventoryRepository.save(inventory);
+        availabilityCache.invalidateAfterCommit(List.of(inventory.getProductId()));
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        if (engine != null) {
+            engine.invalidateAfterCommit(inventory.getProductId());
+        }
         return mapToResponse(inventory);
     }
 
+    /**
+     * Reserves stock outside any order. Nothing confirms such a reservation, so like an unpaid order's
+     * it is released once {@code inventory.reservations.ttl-minutes} have passed.
+     */
     @Transactional
     public InventoryResponse reserveStock(Long productId, Integer quantity) {
-        Inventory inventory = inventoryRepository.findByProductIdWithLock(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId.toString()));
-
-        if (inventory.getAvailableQuantity() < quantity) {
-            throw new InsufficientStockException("Insufficient stock for product ID: " + productId);
+        availabilityCache.invalidateAfterCommit(List.of(productId));
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        if (engine != null) {
+            if (!engine.tryReserve(productId, quantity)) {
+                throw new InsufficientStockException("Insufficient stock for product ID: " + productId);
+            }
+            recordReservations(List.of(newReservation(null, productId, quantity)));
+            // the row itself is only written at the next engine flush
+            return InventoryResponse.builder()
+                    .productId(productId)
+                    .availableQuantity(engine.availableQuantity(productId))
+                    .build();
         }
 
-        int updated = inventoryRepository.reserveQuantity(productId, quantity);
-        if (updated == 0) {
-            throw new InsufficientStockException("Could not reserve stock for product ID: " + productId);
+        // The conditional UPDATE checks availability and takes the row lock in one statement; the
+        // read below sees our own write and nothing else can change the row before we commit.
+        splitStockCounter.refresh(List.of(productId));
+        boolean reserved = splitStockCounter.isSplit(productId)
+                ? splitStockCounter.apply(productId, quantity, SplitStockCounter.Change.RESERVE)
+                : inventoryRepository.reserveQuantity(productId, quantity) == 1;
+        if (!reserved) {
+            if (!inventoryRepository.existsByProductId(productId)) {
+                throw new ResourceNotFoundException("Inventory", "productId", productId.toString());
+            }
+            throw new InsufficientStockException("Insufficient stock for product ID: " + productId);
         }
+        recordReservations(List.of(newReservation(null, productId, quantity)));
 
-        inventory = inventoryRepository.findByProductId(productId)
+        Inventory inventory = inventoryRepository.findByProductId(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId.toString()));
         return mapToResponse(inventory);
     }
 
+    /**
+     * Reserves every line of the order or none. Lines are merged per product and the rows are locked
+     * with one SELECT in product ID order, so concurrent orders over the same products cannot deadlock;
+     * the reserved quantities go back as one JDBC batch at flush.
+     */
     @Transactional
     public void processOrderCreated(OrderCreatedEvent event) {
-        for (OrderItemDto item : event.getItems()) {
-            Inventory inventory = inventoryRepository.findByProductIdWithLock(item.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", item.getProductId().toString()));
+        List<OrderCreatedEvent> toReserve = settleAlreadyCompleted(
+                processedEventRegistry.claim(ProcessedEvent.EventType.ORDER_CREATED, List.of(event), OrderCreatedEvent::getOrderId));
+        if (toReserve.isEmpty()) {
+            return;
+        }
 
-            if (inventory.getAvailableQuantity() < item.getQuantity()) {
-                throw new InsufficientStockException("Insufficient stock for product ID: " + item.getProductId());
-            }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        sumByProduct(event.getItems(), quantities);
+        reserveAll(quantities, "order ID: " + event.getOrderId());
+        recordReservations(orderReservations(event.getOrderId(), quantities));
+    }
 
-            int updated = inventoryRepository.reserveQuantity(item.getProductId(), item.getQuantity());
-            if (updated == 0) {
-                throw new InsufficientStockException("Could not reserve stock for product ID: " + item.getProductId());
-            }
+    /**
+     * Reserves a whole batch of orders in one transaction, summed per product. Fails as a unit if any
+     * product cannot cover the batch total; callers then fall back to {@link #processOrderCreated}
+     * per order.
+     */
+    @Transactional
+    public void processOrdersCreated(List<OrderCreatedEvent> events) {
+        List<OrderCreatedEvent> unprocessed = settleAlreadyCompleted(
+                processedEventRegistry.claim(ProcessedEvent.EventType.ORDER_CREATED, events, OrderCreatedEvent::getOrderId));
+        if (unprocessed.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        List<StockReservation> reservations = new ArrayList<>();
+        for (OrderCreatedEvent event : unprocessed) {
+            Map<Long, Integer> orderQuantities = new TreeMap<>();
+            sumByProduct(event.getItems(), orderQuantities);
+            orderQuantities.forEach((productId, quantity) -> quantities.merge(productId, quantity, Integer::sum));
+            reservations.addAll(orderReservations(event.getOrderId(), orderQuantities));
         }
+        reserveAll(quantities, unprocessed.size() + " orders");
+        recordReservations(reservations);
     }
 
+    /**
+     * Frees the still-active reservations of cancelled orders, or restocks the confirmed reservations
+     * of orders that were cancelled after payment, with one update per product for the whole batch.
+     * Orders without reservation rows only change stock if they provably reserved before rows were
+     * tracked (see {@link #untrackedReservations}); a cancel that arrives before the order was
+     * reserved, or for an order whose reservation failed, changes nothing.
+     */
     @Transactional
-    public void releaseReservedStock(Long productId, Integer quantity) {
-        int updated = inventoryRepository.releaseReservedQuantity(productId, quantity);
-        if (updated == 0) {
-            throw new RuntimeException("Could not release reserved stock for product ID: " + productId);
+    public void processOrdersCancelled(List<OrderCancelledEvent> events) {
+        List<OrderCancelledEvent> unprocessed =
+                processedEventRegistry.claim(ProcessedEvent.EventType.ORDER_CANCELLED, events, OrderCancelledEvent::getOrderId);
+        List<Long> orderIds = unprocessed.stream().map(OrderCancelledEvent::getOrderId).toList();
+        Map<Long, List<StockReservation>> reservations = lockReservations(orderIds);
+        Set<Long> untracked = untrackedReservations(orderIds, reservations);
+
+        Map<Long, Integer> toRelease = new TreeMap<>();
+        Map<Long, Integer> toRestock = new TreeMap<>();
+        for (OrderCancelledEvent event : unprocessed) {
+            boolean paid = "PAID".equals(event.getPreviousStatus());
+            List<StockReservation> orderReservations = reservations.get(event.getOrderId());
+            if (orderReservations == null) {
+                if (untracked.contains(event.getOrderId())) {
+                    sumByProduct(event.getItems(), paid ? toRestock : toRelease);
+                } else {
+                    skipUnreserved(ProcessedEvent.EventType.ORDER_CANCELLED, event.getOrderId());
+                }
+                continue;
+            }
+            // expired reservations were already released; ACTIVE rows of a paid order mean its paid
+            // event has not been applied yet, and it is skipped once this cancel is recorded
+            for (StockReservation reservation : orderReservations) {
+                if (reservation.getStatus() == StockReservation.ReservationStatus.ACTIVE) {
+                    reservation.setStatus(StockReservation.ReservationStatus.RELEASED);
+                    toRelease.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                } else if (paid && reservation.getStatus() == StockReservation.ReservationStatus.CONFIRMED) {
+                    reservation.setStatus(StockReservation.ReservationStatus.RELEASED);
+                    toRestock.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                }
+            }
         }
+
+        availabilityCache.invalidateAfterCommit(toRelease.keySet());
+        availabilityCache.invalidateAfterCommit(toRestock.keySet());
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        if (engine != null) {
+            engine.releaseAfterCommit(toRelease);
+        } else {
+            splitStockCounter.applyAll(toRelease, SplitStockCounter.Change.RELEASE,
+                    "Could not release {} reserved units for product ID: {}");
+        }
+        toRestock.forEach((productId, quantity) -> {
+            if (inventoryRepository.increaseQuantity(productId, quantity) == 0) {
+                log.warn("Could not restock {} units for product ID: {}", quantity, productId);
+            } else if (engine != null) {
+                engine.invalidateAfterCommit(productId);
+            }
+        });
     }
 
+    /**
+     * Converts the reservations of paid orders into deductions, one update per product for the batch.
+     * Orders whose reservation already expired are deducted straight from stock. Orders already
+     * cancelled, or not reserved yet, are skipped; the late order-created event deducts the latter.
+     */
     @Transactional
-    public void confirmAndDeductStock(Long productId, Integer quantity) {
-        int updated = inventoryRepository.releaseAndDecreaseQuantity(productId, quantity);
-        if (updated == 0) {
-            throw new RuntimeException("Could not confirm and deduct stock for product ID: " + productId);
+    public void processOrdersPaid(List<OrderPaidEvent> events) {
+        List<OrderPaidEvent> unprocessed =
+                processedEventRegistry.claim(ProcessedEvent.EventType.ORDER_PAID, events, OrderPaidEvent::getOrderId);
+        List<Long> orderIds = unprocessed.stream().map(OrderPaidEvent::getOrderId).toList();
+        Map<Long, List<StockReservation>> reservations = lockReservations(orderIds);
+        Set<Long> untracked = untrackedReservations(orderIds, reservations);
+        Set<Long> cancelled = processedEventRegistry.processedOrderIds(ProcessedEvent.EventType.ORDER_CANCELLED, orderIds);
+
+        Map<Long, Integer> toDeduct = new TreeMap<>();
+        Map<Long, Integer> toSell = new TreeMap<>();
+        for (OrderPaidEvent event : unprocessed) {
+            List<StockReservation> orderReservations = reservations.get(event.getOrderId());
+            if (cancelled.contains(event.getOrderId())) {
+                // the cancel was consumed first and already freed whatever this order held
+                log.info("Order {} was paid after its cancel was applied; nothing to deduct", event.getOrderId());
+                meterRegistry.counter("inventory.order-events.reordered", "type", "ORDER_PAID").increment();
+                continue;
+            }
+            if (orderReservations == null) {
+                if (untracked.contains(event.getOrderId())) {
+                    sumByProduct(event.getItems(), toDeduct);
+                } else {
+                    skipUnreserved(ProcessedEvent.EventType.ORDER_PAID, event.getOrderId());
+                }
+                continue;
+            }
+            for (StockReservation reservation : orderReservations) {
+                if (reservation.getStatus() == StockReservation.ReservationStatus.ACTIVE) {
+                    reservation.setStatus(StockReservation.ReservationStatus.CONFIRMED);
+                    toDeduct.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                } else if (reservation.getStatus() == StockReservation.ReservationStatus.EXPIRED) {
+                    reservation.setStatus(StockReservation.ReservationStatus.CONFIRMED);
+                    toSell.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                }
+            }
+        }
+
+        availabilityCache.invalidateAfterCommit(toDeduct.keySet());
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        if (engine != null) {
+            engine.flushProducts(toDeduct.keySet());
+        }
+
+        splitStockCounter.applyAll(toDeduct, SplitStockCounter.Change.DEDUCT,
+                "Could not deduct {} reserved units for product ID: {}");
+        sell(toSell, "Paid order needs {} units of product ID: {} after its reservation expired, stock is short");
+    }
+
+    // TreeMap keeps product IDs sorted so concurrent batches lock rows in the same order
+    private void reserveAll(Map<Long, Integer> quantities, String subject) {
+        availabilityCache.invalidateAfterCommit(quantities.keySet());
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        if (engine != null) {
+            if (!engine.tryReserveAll(quantities)) {
+                throw new InsufficientStockException("Insufficient stock for " + subject);
+            }
+            return;
+        }
+
+        // plain rows first, split products after them, matching SplitStockCounter's lock order
+        splitStockCounter.refresh(quantities.keySet());
+        Map<Long, Integer> plain = new TreeMap<>();
+        Map<Long, Integer> split = new TreeMap<>();
+        quantities.forEach((productId, quantity) ->
+                (splitStockCounter.isSplit(productId) ? split : plain).put(productId, quantity));
+
+        List<Inventory> rows = plain.isEmpty() ? List.of() : inventoryRepository.findAllByProductIdInWithLock(plain.keySet());
+        if (rows.size() != plain.size()) {
+            Set<Long> missing = new TreeSet<>(plain.keySet());
+            rows.forEach(row -> missing.remove(row.getProductId()));
+            throw new ResourceNotFoundException("Inventory", "productId", missing.toString());
+        }
+
+        List<Long> insufficient = new ArrayList<>();
+        for (Inventory row : rows) {
+            if (row.getAvailableQuantity() < plain.get(row.getProductId())) {
+                insufficient.add(row.getProductId());
+            }
+        }
+        if (!insufficient.isEmpty()) {
+            throw new InsufficientStockException("Insufficient stock for " + subject + ", product IDs: " + insufficient);
+        }
+
+        for (Inventory row : rows) {
+            row.setReservedQuantity(row.getReservedQuantity() + plain.get(row.getProductId()));
+        }
+        split.forEach((productId, quantity) -> {
+            if (!splitStockCounter.apply(productId, quantity, SplitStockCounter.Change.RESERVE)) {
+                insufficient.add(productId);
+            }
+        });
+        if (!insufficient.isEmpty()) {
+            throw new InsufficientStockException("Insufficient stock for " + subject + ", product IDs: " + insufficient);
+        }
+    }
+
+    /**
+     * Order events travel on separate topics, so an order-created event can be consumed after the
+     * order's cancel or paid event was applied (and skipped, having nothing reserved). Cancelled orders
+     * are not reserved; paid ones are deducted straight from stock and recorded as confirmed. Returns
+     * the events that still need a reservation.
+     */
+    private List<OrderCreatedEvent> settleAlreadyCompleted(List<OrderCreatedEvent> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        List<Long> orderIds = events.stream().map(OrderCreatedEvent::getOrderId).toList();
+        Set<Long> cancelled = processedEventRegistry.processedOrderIds(ProcessedEvent.EventType.ORDER_CANCELLED, orderIds);
+        Set<Long> paid = processedEventRegistry.processedOrderIds(ProcessedEvent.EventType.ORDER_PAID, orderIds);
+        if (cancelled.isEmpty() && paid.isEmpty()) {
+            return events;
+        }
+
+        List<OrderCreatedEvent> toReserve = new ArrayList<>();
+        Map<Long, Integer> toSell = new TreeMap<>();
+        List<StockReservation> confirmed = new ArrayList<>();
+        for (OrderCreatedEvent event : events) {
+            if (cancelled.contains(event.getOrderId())) {
+                log.info("Order {} was cancelled before it was reserved; not reserving", event.getOrderId());
+                meterRegistry.counter("inventory.order-events.reordered", "type", "ORDER_CREATED").increment();
+            } else if (paid.contains(event.getOrderId())) {
+                log.info("Order {} was paid before it was reserved; deducting directly", event.getOrderId());
+                meterRegistry.counter("inventory.order-events.reordered", "type", "ORDER_CREATED").increment();
+                Map<Long, Integer> quantities = new TreeMap<>();
+                sumByProduct(event.getItems(), quantities);
+                quantities.forEach((productId, quantity) -> toSell.merge(productId, quantity, Integer::sum));
+                for (StockReservation reservation : orderReservations(event.getOrderId(), quantities)) {
+                    reservation.setStatus(StockReservation.ReservationStatus.CONFIRMED);
+                    confirmed.add(reservation);
+                }
+            } else {
+                toReserve.add(event);
+            }
+        }
+
+        reservationRepository.saveAll(confirmed);
+        sell(toSell, "Order paid before it was reserved needs {} units of product ID: {}, stock is short");
+        return toReserve;
+    }
+
+    // takes units straight off stock, for paid orders that hold no active reservation
+    private void sell(Map<Long, Integer> quantities, String shortMessage) {
+        availabilityCache.invalidateAfterCommit(quantities.keySet());
+        splitStockCounter.applyAll(quantities, SplitStockCounter.Change.DECREASE, shortMessage);
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        if (engine != null) {
+            quantities.keySet().forEach(engine::invalidateAfterCommit);
+        }
+    }
+
+    /**
+     * Of the given orders without reservation rows, those that provably reserved before rows were
+     * tracked: IDs below {@code inventory.reservations.untracked-before-order-id}, or orders whose
+     * order-created event is recorded as processed (that record commits with a successful reservation).
+     */
+    private Set<Long> untrackedReservations(List<Long> orderIds, Map<Long, List<StockReservation>> reservations) {
+        List<Long> untracked = orderIds.stream().filter(orderId -> !reservations.containsKey(orderId)).toList();
+        Set<Long> reserved = new HashSet<>(processedEventRegistry.processedOrderIds(ProcessedEvent.EventType.ORDER_CREATED, untracked));
+        untracked.stream().filter(orderId -> orderId < untrackedBeforeOrderId).forEach(reserved::add);
+        return reserved;
+    }
+
+    private void skipUnreserved(ProcessedEvent.EventType eventType, Long orderId) {
+        log.info("Order {} has no recorded reservation; {} leaves stock unchanged", orderId, eventType);
+        meterRegistry.counter("inventory.order-events.unreserved", "type", eventType.name()).increment();
+    }
+
+    private List<StockReservation> orderReservations(Long orderId, Map<Long, Integer> quantities) {
+        List<StockReservation> reservations = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> reservations.add(newReservation(orderId, productId, quantity)));
+        return reservations;
+    }
+
+    private StockReservation newReservation(Long orderId, Long productId, Integer quantity) {
+        StockReservation reservation = new StockReservation();
+        reservation.setOrderId(orderId);
+        reservation.setProductId(productId);
+        reservation.setQuantity(quantity);
+        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(reservationTtlMinutes));
+        return reservation;
+    }
+
+    private void recordReservations(List<StockReservation> reservations) {
+        List<StockReservation> saved = reservationRepository.saveAll(reservations);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                saved.forEach(reservation -> expiryScheduler.schedule(reservation.getId(), reservation.getExpiresAt()));
+            }
+        });
+    }
+
+    private Map<Long, List<StockReservation>> lockReservations(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<StockReservation>> byOrder = new HashMap<>();
+        for (StockReservation reservation : reservationRepository.findAllByOrderIdInWithLock(orderIds)) {
+            byOrder.computeIfAbsent(reservation.getOrderId(), id -> new ArrayList<>()).add(reservation);
+        }
+        return byOrder;
+    }
+
+    private void sumByProduct(List<OrderItemDto> items, Map<Long, Integer> totals) {
+        for (OrderItemDto item : items) {
+            totals.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
     }
 
@@ -113,8 +535,8 @@ public class InventoryService {
         return InventoryResponse.builder()
                 .id(inventory.getId())
                 .productId(inventory.getProductId())
-                .quantity(inventory.getQuantity())
-                .reservedQuantity(inventory.getReservedQuantity())
+                .quantity(inventory.getTotalQuantity())
+                .reservedQuantity(inventory.getTotalReservedQuantity())
                 .availableQuantity(inventory.getAvailableQuantity())
                 .createdAt(inventory.getCreatedAt())
                 .updatedAt(inventory.getUpdatedAt())
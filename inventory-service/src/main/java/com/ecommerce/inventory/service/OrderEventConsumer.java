@@ -1,26 +1,130 @@
 package com.ecommerce.inventory.service;
 
+import com.ecommerce.inventory.config.KafkaTopicConfig;
+import com.ecommerce.inventory.dto.OrderCancelledEvent;
 import com.ecommerce.inventory.dto.OrderCreatedEvent;
+import com.ecommerce.inventory.dto.OrderPaidEvent;
+import com.ecommerce.inventory.dto.ReservationFailedEvent;
+import com.ecommerce.inventory.exception.InsufficientStockException;
+import com.ecommerce.inventory.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventConsumer {
+    /** Inventory's own copy of failed order-created events; retry tiers and the DLT hang off it. */
+    static final String ORDER_CREATED_RETRY_TOPIC = "order-created-inventory";
+
     private final InventoryService inventoryService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
-    @KafkaListener(topics = "order-created", groupId = "inventory-service-group")
-    public void consumeOrderCreated(OrderCreatedEvent event) {
+    /**
+     * Reserves a poll's worth of orders in one transaction. If the batch as a whole cannot be
+     * reserved, each order is retried in its own transaction; orders that still fail are moved to
+     * the retry topic instead of being retried in place, so they never hold up the partition.
+     */
+    @KafkaListener(topics = "order-created", groupId = "inventory-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            concurrency = "${inventory.order-created.concurrency:6}",
+            properties = "max.poll.records=${inventory.order-created.max-batch-size:200}")
+    public void consumeOrdersCreated(List<OrderCreatedEvent> events) {
+        log.info("Received {} order created events", events.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            log.info("Received order created event for order ID: {}", event.getOrderId());
-            inventoryService.processOrderCreated(event);
-            log.info("Successfully processed order created event for order ID: {}", event.getOrderId());
+            inventoryService.processOrdersCreated(events);
+            meterRegistry.counter("inventory.order-created.events", "mode", "batch", "result", "success")
+                    .increment(events.size());
+            return;
         } catch (Exception e) {
-            log.error("Error processing order created event for order ID: {}", event.getOrderId(), e);
-            throw e;
+            log.warn("Batch reservation of {} orders failed, falling back to per-order processing: {}",
+                    events.size(), e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("inventory.order-created.batch"));
+        }
+
+        for (int i = 0; i < events.size(); i++) {
+            OrderCreatedEvent event = events.get(i);
+            try {
+                inventoryService.processOrderCreated(event);
+                meterRegistry.counter("inventory.order-created.events", "mode", "record", "result", "success").increment();
+            } catch (Exception e) {
+                log.warn("Order created event for order ID: {} failed, moving it to {}: {}",
+                        event.getOrderId(), ORDER_CREATED_RETRY_TOPIC, e.getMessage());
+                meterRegistry.counter("inventory.order-created.events", "mode", "record", "result", "failure").increment();
+                try {
+                    kafkaTemplate.send(ORDER_CREATED_RETRY_TOPIC, String.valueOf(event.getOrderId()), event).join();
+                } catch (Exception sendFailure) {
+                    // nothing was handed off; let the error handler redeliver from this record
+                    throw new BatchListenerFailedException("Could not forward order ID: " + event.getOrderId(), sendFailure, i);
+                }
+            }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retries orders that failed on the main topic with increasing back-off on separate tier topics.
+     * Insufficient stock and unknown products are not transient and go straight to the DLT.
+     */
+    @RetryableTopic(
+            attempts = "${inventory.order-created.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${inventory.order-created.retry.delay-ms:1000}",
+                    multiplierExpression = "${inventory.order-created.retry.multiplier:5}"),
+            exclude = {InsufficientStockException.class, ResourceNotFoundException.class},
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            numPartitions = "${kafka.topics.order-created-retry.partitions:12}")
+    @KafkaListener(topics = ORDER_CREATED_RETRY_TOPIC, groupId = "inventory-service-group")
+    public void retryOrderCreated(OrderCreatedEvent event) {
+        log.info("Retrying order created event for order ID: {}", event.getOrderId());
+        inventoryService.processOrderCreated(event);
+        meterRegistry.counter("inventory.order-created.events", "mode", "retry", "result", "success").increment();
+    }
+
+    @DltHandler
+    public void handleOrderCreatedDlt(OrderCreatedEvent event,
+                                      @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) byte[] exceptionMessage) {
+        String reason = exceptionMessage != null ? new String(exceptionMessage, StandardCharsets.UTF_8) : null;
+        log.error("Reservation failed permanently for order ID: {}: {}", event.getOrderId(), reason);
+        meterRegistry.counter("inventory.order-created.events", "mode", "retry", "result", "dead-lettered").increment();
+        ReservationFailedEvent failed = ReservationFailedEvent.builder()
+                .orderId(event.getOrderId())
+                .userId(event.getUserId())
+                .reason(reason)
+                .items(event.getItems())
+                .failedAt(LocalDateTime.now())
+                .build();
+        kafkaTemplate.send(KafkaTopicConfig.RESERVATION_FAILED_TOPIC, String.valueOf(event.getOrderId()), failed).join();
+    }
+
+    @KafkaListener(topics = "order-cancelled", groupId = "inventory-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consumeOrdersCancelled(List<OrderCancelledEvent> events) {
+        log.info("Received {} order cancelled events", events.size());
+        inventoryService.processOrdersCancelled(events);
+    }
+
+    @KafkaListener(topics = "order-paid", groupId = "inventory-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consumeOrdersPaid(List<OrderPaidEvent> events) {
+        log.info("Received {} order paid events", events.size());
+        inventoryService.processOrdersPaid(events);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.ProcessedEvent;
+import com.ecommerce.inventory.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Remembers which order events already changed stock, so Kafka redeliveries are skipped instead of
+ * being applied twice. Rows in {@code processed_events} are the source of truth and are written in
+ * the caller's transaction, next to the stock changes; a bounded LRU of recently committed keys
+ * answers most duplicates without a query.
+ */
+@Service
+@Slf4j
+public class ProcessedEventRegistry {
+    private final ProcessedEventRepository processedEventRepository;
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Boolean> recent;
+    private final int retentionDays;
+
+    public ProcessedEventRegistry(ProcessedEventRepository processedEventRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${inventory.processed-events.cache-size:100000}") int cacheSize,
+                                  @Value("${inventory.processed-events.retention-days:7}") int retentionDays) {
+        this.processedEventRepository = processedEventRepository;
+        this.meterRegistry = meterRegistry;
+        this.retentionDays = retentionDays;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Returns the events that have not been processed yet, at most one per order, and records them as
+     * processed in the current transaction. If that transaction rolls back the claim goes with it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> List<T> claim(ProcessedEvent.EventType eventType, List<T> events, Function<T, Long> orderIdOf) {
+        Map<Long, T> candidates = new LinkedHashMap<>();
+        for (T event : events) {
+            Long orderId = orderIdOf.apply(event);
+            if (!recent.containsKey(new Key(eventType, orderId))) {
+                candidates.putIfAbsent(orderId, event);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            for (Long orderId : processedEventRepository.findProcessedOrderIds(eventType, candidates.keySet())) {
+                candidates.remove(orderId);
+                recent.put(new Key(eventType, orderId), Boolean.TRUE);
+            }
+        }
+
+        int duplicates = events.size() - candidates.size();
+        if (duplicates > 0) {
+            log.info("Skipping {} already processed {} events", duplicates, eventType);
+            meterRegistry.counter("inventory.events.duplicates", "type", eventType.name()).increment(duplicates);
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<ProcessedEvent> rows = new ArrayList<>(candidates.size());
+        for (Long orderId : candidates.keySet()) {
+            ProcessedEvent row = new ProcessedEvent();
+            row.setOrderId(orderId);
+            row.setEventType(eventType);
+            rows.add(row);
+        }
+        // a concurrent claim of the same order fails on the unique index and rolls back its transaction
+        processedEventRepository.saveAll(rows);
+
+        List<Long> claimed = new ArrayList<>(candidates.keySet());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                claimed.forEach(orderId -> recent.put(new Key(eventType, orderId), Boolean.TRUE));
+            }
+        });
+        return new ArrayList<>(candidates.values());
+    }
+
+    /**
+     * Which of {@code orderIds} have a processed {@code eventType} recorded, read from the table so the
+     * answer does not depend on what this instance has cached.
+     */
+    public Set<Long> processedOrderIds(ProcessedEvent.EventType eventType, Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(processedEventRepository.findProcessedOrderIds(eventType, orderIds));
+    }
+
+    @Scheduled(cron = "${inventory.processed-events.purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} processed event records", deleted);
+        }
+    }
+
+    private record Key(ProcessedEvent.EventType eventType, Long orderId) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.StockReservation;
+import com.ecommerce.inventory.repository.StockReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Releases reservations whose deadline has passed. Deadlines are kept in a hashed timer wheel: a
+ * ring of slots, one per tick, where a reservation due in {@code n} ticks lands in slot
+ * {@code (current + n) % size} and is skipped on earlier laps. Scheduling is an O(1) queue append
+ * from any thread; only the ticker touches the slots.
+ *
+ * <p>The wheel is a cache of the {@code stock_reservations} table: it is reloaded on startup, and a
+ * periodic sweep picks up reservations another instance scheduled or this one missed. Confirmed or
+ * released reservations stay in the wheel and are dropped when their slot comes up.
+ *
+ * <p>Finished rows are purged: released and expired ones after the processed-event retention, since
+ * only late events for the same order still look at them, and confirmed ones once a cancel after
+ * payment is no longer restocked.
+ */
+@Service
+@Slf4j
+public class ReservationExpiryScheduler {
+    private final StockReservationRepository reservationRepository;
+    private final ObjectProvider<StockReservationEngine> reservationEngine;
+    private final AvailabilityCache availabilityCache;
+    private final SplitStockCounter splitStockCounter;
+    private final TransactionTemplate transactionTemplate;
+    private final long tickMillis;
+    private final int batchSize;
+    private final int finishedRetentionDays;
+    private final int confirmedRetentionDays;
+    private final List<Timeout>[] wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduled;
+    private final Counter expired;
+    private long currentTick = -1;
+
+    @SuppressWarnings("unchecked")
+    public ReservationExpiryScheduler(StockReservationRepository reservationRepository,
+                                      ObjectProvider<StockReservationEngine> reservationEngine,
+                                      AvailabilityCache availabilityCache,
+                                      SplitStockCounter splitStockCounter,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${inventory.reservations.wheel.tick-ms:1000}") long tickMillis,
+                                      @Value("${inventory.reservations.wheel.size:512}") int wheelSize,
+                                      @Value("${inventory.reservations.expiry-batch-size:500}") int batchSize,
+                                      @Value("${inventory.reservations.finished-retention-days:7}") int finishedRetentionDays,
+                                      @Value("${inventory.reservations.confirmed-retention-days:30}") int confirmedRetentionDays) {
+        this.reservationRepository = reservationRepository;
+        this.reservationEngine = reservationEngine;
+        this.availabilityCache = availabilityCache;
+        this.splitStockCounter = splitStockCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.finishedRetentionDays = finishedRetentionDays;
+        this.confirmedRetentionDays = confirmedRetentionDays;
+        this.wheel = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.scheduled = meterRegistry.gauge("inventory.reservations.scheduled", new AtomicInteger());
+        this.expired = Counter.builder("inventory.reservations.expired").register(meterRegistry);
+    }
+
+    public void schedule(Long reservationId, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // round up so a reservation is never looked at before its deadline
+        pending.add(new Timeout(reservationId, (deadline + tickMillis - 1) / tickMillis));
+        scheduled.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.wheel.tick-ms:1000}")
+    public void tick() {
+        long nowTick = System.currentTimeMillis() / tickMillis;
+        if (currentTick < 0) {
+            currentTick = nowTick - 1;
+        }
+
+        List<Long> due = new ArrayList<>();
+        // catch up on every tick missed while the scheduler thread was busy
+        while (currentTick < nowTick) {
+            currentTick++;
+            transferPending();
+            Iterator<Timeout> slot = wheel[slotOf(currentTick)].iterator();
+            while (slot.hasNext()) {
+                Timeout timeout = slot.next();
+                if (timeout.deadlineTick() <= currentTick) {
+                    slot.remove();
+                    due.add(timeout.reservationId());
+                }
+            }
+        }
+        if (!due.isEmpty()) {
+            scheduled.addAndGet(-due.size());
+            expire(due);
+        }
+    }
+
+    /**
+     * Safety net for reservations that are not in this instance's wheel.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservations.sweep-interval-ms:300000}",
+            initialDelayString = "${inventory.reservations.sweep-interval-ms:300000}")
+    public void sweep() {
+        List<Long> ids;
+        do {
+            ids = reservationRepository.findIdsByStatusAndExpiresAtBefore(StockReservation.ReservationStatus.ACTIVE,
+                    LocalDateTime.now(), PageRequest.of(0, batchSize));
+        } while (expire(ids) && ids.size() == batchSize);
+    }
+
+    @Scheduled(cron = "${inventory.reservations.purge-cron:0 45 * * * *}")
+    public void purgeFinished() {
+        LocalDateTime now = LocalDateTime.now();
+        int finished = transactionTemplate.execute(status -> reservationRepository.deleteByStatusInUpdatedBefore(
+                List.of(StockReservation.ReservationStatus.RELEASED, StockReservation.ReservationStatus.EXPIRED),
+                now.minusDays(finishedRetentionDays)));
+        int confirmed = transactionTemplate.execute(status -> reservationRepository.deleteByStatusInUpdatedBefore(
+                List.of(StockReservation.ReservationStatus.CONFIRMED), now.minusDays(confirmedRetentionDays)));
+        if (finished + confirmed > 0) {
+            log.info("Purged {} released or expired and {} confirmed reservations", finished, confirmed);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveReservations() {
+        long afterId = 0;
+        int loaded = 0;
+        List<StockReservation> page;
+        do {
+            page = reservationRepository.findByStatusAfterId(StockReservation.ReservationStatus.ACTIVE,
+                    afterId, PageRequest.of(0, 5000));
+            for (StockReservation reservation : page) {
+                schedule(reservation.getId(), reservation.getExpiresAt());
+                afterId = reservation.getId();
+            }
+            loaded += page.size();
+        } while (!page.isEmpty());
+        log.info("Scheduled {} active reservations for expiry", loaded);
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            long tick = Math.max(timeout.deadlineTick(), currentTick);
+            wheel[slotOf(tick)].add(timeout);
+        }
+    }
+
+    private int slotOf(long tick) {
+        return (int) (tick % wheel.length);
+    }
+
+    private boolean expire(List<Long> reservationIds) {
+        StockReservationEngine engine = reservationEngine.getIfAvailable();
+        boolean complete = true;
+        for (int from = 0; from < reservationIds.size(); from += batchSize) {
+            List<Long> chunk = reservationIds.subList(from, Math.min(from + batchSize, reservationIds.size()));
+            try {
+                Map<Long, Integer> released = transactionTemplate.execute(status -> releaseExpired(chunk, engine == null));
+                if (engine != null) {
+                    released.forEach(engine::release);
+                }
+            } catch (RuntimeException e) {
+                // rows stay ACTIVE and are picked up by the next sweep
+                log.error("Could not expire {} reservations", chunk.size(), e);
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    private Map<Long, Integer> releaseExpired(List<Long> reservationIds, boolean releaseInDatabase) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> totals = new TreeMap<>();
+        int count = 0;
+        for (StockReservation reservation : reservationRepository.findAllByIdInWithLock(reservationIds)) {
+            if (reservation.getStatus() == StockReservation.ReservationStatus.ACTIVE
+                    && !reservation.getExpiresAt().isAfter(now)) {
+                reservation.setStatus(StockReservation.ReservationStatus.EXPIRED);
+                totals.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                count++;
+            }
+        }
+        availabilityCache.invalidateAfterCommit(totals.keySet());
+        if (releaseInDatabase) {
+            splitStockCounter.applyAll(totals, SplitStockCounter.Change.RELEASE,
+                    "Could not release {} expired reserved units for product ID: {}");
+        }
+        if (count > 0) {
+            log.info("Expired {} reservations across {} products", count, totals.size());
+            expired.increment(count);
+        }
+        return totals;
+    }
+
+    private record Timeout(Long reservationId, long deadlineTick) {
+    }
+}
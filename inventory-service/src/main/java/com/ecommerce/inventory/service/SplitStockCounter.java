@@ -0,0 +1,368 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.InventoryBucket;
+import com.ecommerce.inventory.exception.ResourceNotFoundException;
+import com.ecommerce.inventory.repository.InventoryBucketRepository;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.StockLevelView;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Split counters for flash-sale products. A split product keeps part of its stock on N bucket rows
+ * next to its inventory row (the pool); each update goes to one bucket that a non-locking read shows
+ * can take it, probing from a random index and wrapping around, so concurrent reservations of one
+ * product mostly lock different rows. Totals are the sum of pool and buckets, which
+ * {@code Inventory} reads through formula columns, and a rebalancer evens out free stock.
+ *
+ * <p>Lock order is fixed so split products cannot deadlock: plain inventory rows first, then split
+ * products by product ID, each with its buckets in ascending index order before its pool row. A
+ * failed conditional UPDATE keeps its row lock, so after one the buckets below it are locked with
+ * SKIP LOCKED rather than waited for. Split counters are not used together with
+ * {@link StockReservationEngine}.
+ */
+@Service
+@Slf4j
+public class SplitStockCounter {
+    private final InventoryRepository inventoryRepository;
+    private final InventoryBucketRepository bucketRepository;
+    private final ObjectProvider<StockReservationEngine> reservationEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Integer> bucketCounts = new ConcurrentHashMap<>();
+    private final int maxBuckets;
+    private final double imbalanceRatio;
+
+    public SplitStockCounter(InventoryRepository inventoryRepository,
+                             InventoryBucketRepository bucketRepository,
+                             ObjectProvider<StockReservationEngine> reservationEngine,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${inventory.split-counters.max-buckets:64}") int maxBuckets,
+                             @Value("${inventory.split-counters.imbalance-ratio:0.2}") double imbalanceRatio) {
+        this.inventoryRepository = inventoryRepository;
+        this.bucketRepository = bucketRepository;
+        this.reservationEngine = reservationEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxBuckets = maxBuckets;
+        this.imbalanceRatio = imbalanceRatio;
+    }
+
+    public enum Change {
+        RESERVE, RELEASE, DEDUCT, DECREASE
+    }
+
+    public boolean isSplit(Long productId) {
+        return bucketCounts.containsKey(productId);
+    }
+
+    /**
+     * Re-reads which of the given products are split, so a product split or merged by another
+     * instance since the last rebalance is not updated through the wrong rows. Call before the first
+     * update of these products in a transaction.
+     */
+    public void refresh(Collection<Long> productIds) {
+        Map<Long, Integer> current = new HashMap<>();
+        inventoryRepository.findBucketedProductsIn(productIds)
+                .forEach(product -> current.put(product.getProductId(), product.getBucketCount()));
+        for (Long productId : productIds) {
+            Integer buckets = current.get(productId);
+            if (buckets != null) {
+                bucketCounts.put(productId, buckets);
+            } else {
+                bucketCounts.remove(productId);
+            }
+        }
+    }
+
+    /**
+     * Applies a change to a split product: one conditional UPDATE on a bucket that looked able to take
+     * it, or else spread over all buckets and the pool.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean apply(Long productId, int quantity, Change change) {
+        Integer candidate = pickBucket(productId, quantity, change);
+        if (candidate != null && updateBucket(productId, candidate, quantity, change) == 1) {
+            record(change, "bucket");
+            return true;
+        }
+        boolean spread = spread(productId, candidate, quantity, change);
+        record(change, spread ? "spread" : "rejected");
+        return spread;
+    }
+
+    /**
+     * Applies per-product changes in lock order, logging the ones that could not be applied. Which
+     * products are split is refreshed with one query up front, so no pool row is touched before its
+     * buckets.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyAll(Map<Long, Integer> quantities, Change change, String failureMessage) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        refresh(quantities.keySet());
+        quantities.forEach((productId, quantity) -> {
+            if (!isSplit(productId) && updatePool(productId, quantity, change) == 0) {
+                log.warn(failureMessage, quantity, productId);
+            }
+        });
+        quantities.forEach((productId, quantity) -> {
+            if (isSplit(productId) && !apply(productId, quantity, change)) {
+                log.warn(failureMessage, quantity, productId);
+            }
+        });
+    }
+
+    /**
+     * Moves the free stock of a product into {@code buckets} equal bucket rows; reserved units and the
+     * remainder stay on the pool row.
+     */
+    @Transactional
+    public void split(Long productId, int buckets) {
+        if (reservationEngine.getIfAvailable() != null) {
+            throw new IllegalStateException("Split counters cannot be used while the reservation engine is enabled");
+        }
+        if (buckets < 2 || buckets > maxBuckets) {
+            throw new IllegalArgumentException("Bucket count must be between 2 and " + maxBuckets);
+        }
+        StockLevelView pool = inventoryRepository.lockLevel(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId.toString()));
+        if (inventoryRepository.findBucketCount(productId).isPresent()) {
+            throw new IllegalStateException("Inventory for product ID " + productId + " is already split");
+        }
+
+        int perBucket = pool.getFreeQuantity() / buckets;
+        List<InventoryBucket> rows = new ArrayList<>(buckets);
+        for (int index = 0; index < buckets; index++) {
+            InventoryBucket bucket = new InventoryBucket();
+            bucket.setProductId(productId);
+            bucket.setBucketIndex(index);
+            bucket.setQuantity(perBucket);
+            bucket.setReservedQuantity(0);
+            rows.add(bucket);
+        }
+        bucketRepository.saveAll(rows);
+        inventoryRepository.adjustLevels(productId, -perBucket * buckets, 0);
+        inventoryRepository.updateBucketCount(productId, buckets);
+        afterCommit(() -> bucketCounts.put(productId, buckets));
+        log.info("Split inventory for product ID: {} into {} buckets of {} units", productId, buckets, perBucket);
+    }
+
+    /**
+     * Folds all buckets back into the pool row.
+     */
+    @Transactional
+    public void merge(Long productId) {
+        List<StockLevelView> buckets = bucketRepository.lockLevels(productId);
+        if (buckets.isEmpty()) {
+            throw new IllegalStateException("Inventory for product ID " + productId + " is not split");
+        }
+        int quantity = 0;
+        int reserved = 0;
+        for (StockLevelView bucket : buckets) {
+            quantity += bucket.getQuantity();
+            reserved += bucket.getReservedQuantity();
+        }
+        inventoryRepository.lockLevel(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId.toString()));
+        inventoryRepository.adjustLevels(productId, quantity, reserved);
+        bucketRepository.deleteByProductId(productId);
+        inventoryRepository.updateBucketCount(productId, null);
+        afterCommit(() -> bucketCounts.remove(productId));
+        log.info("Merged buckets of product ID: {} back into its inventory row", productId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBucketCounts() {
+        Map<Long, Integer> current = new HashMap<>();
+        inventoryRepository.findBucketedProducts()
+                .forEach(product -> current.put(product.getProductId(), product.getBucketCount()));
+        bucketCounts.keySet().retainAll(current.keySet());
+        bucketCounts.putAll(current);
+    }
+
+    /**
+     * Evens out free stock across buckets, leaving the division remainder on the pool. Also picks up
+     * products split or merged by another instance.
+     */
+    @Scheduled(fixedDelayString = "${inventory.split-counters.rebalance-interval-ms:5000}")
+    public void rebalance() {
+        loadBucketCounts();
+        for (Long productId : bucketCounts.keySet()) {
+            try {
+                if (isImbalanced(bucketRepository.findLevels(productId), inventoryRepository.findLevel(productId).orElse(null))) {
+                    transactionTemplate.executeWithoutResult(status -> rebalance(productId));
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not rebalance buckets of product ID: {}", productId, e);
+            }
+        }
+    }
+
+    private void rebalance(Long productId) {
+        List<StockLevelView> buckets = bucketRepository.lockLevels(productId);
+        StockLevelView pool = inventoryRepository.lockLevel(productId).orElse(null);
+        if (buckets.isEmpty() || pool == null) {
+            return;
+        }
+
+        int totalFree = pool.getFreeQuantity();
+        for (StockLevelView bucket : buckets) {
+            totalFree += bucket.getFreeQuantity();
+        }
+        int target = totalFree / buckets.size();
+        int moved = 0;
+        for (StockLevelView bucket : buckets) {
+            int delta = target - bucket.getFreeQuantity();
+            if (delta != 0) {
+                bucketRepository.adjustLevels(productId, bucket.getBucketIndex(), delta, 0);
+                moved += delta;
+            }
+        }
+        if (moved != 0) {
+            inventoryRepository.adjustLevels(productId, -moved, 0);
+        }
+        meterRegistry.counter("inventory.split-counters.rebalances").increment();
+    }
+
+    private boolean isImbalanced(List<StockLevelView> buckets, StockLevelView pool) {
+        if (buckets.isEmpty() || pool == null) {
+            return false;
+        }
+        // restocks land on the pool row
+        if (pool.getFreeQuantity() >= buckets.size()) {
+            return true;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (StockLevelView bucket : buckets) {
+            min = Math.min(min, bucket.getFreeQuantity());
+            max = Math.max(max, bucket.getFreeQuantity());
+        }
+        return max - min > Math.max(1, max * imbalanceRatio);
+    }
+
+    // Non-locking read; the conditional UPDATE that follows decides
+    private Integer pickBucket(Long productId, int quantity, Change change) {
+        List<StockLevelView> buckets = bucketRepository.findLevels(productId);
+        if (buckets.isEmpty()) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            StockLevelView bucket = buckets.get((start + i) % buckets.size());
+            if (capacityOf(bucket, change) >= quantity) {
+                return bucket.getBucketIndex();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Locks every bucket in index order, then the pool, and spreads the change over them. When the
+     * UPDATE on {@code heldIndex} failed we already hold that bucket, and waiting for a lower one
+     * could deadlock with a spread holding it and waiting for ours; lower buckets another transaction
+     * has locked are skipped instead.
+     */
+    private boolean spread(Long productId, Integer heldIndex, int quantity, Change change) {
+        List<StockLevelView> rows = new ArrayList<>();
+        if (heldIndex == null) {
+            rows.addAll(bucketRepository.lockLevels(productId));
+        } else {
+            rows.addAll(bucketRepository.lockUnlockedLevelsBelow(productId, heldIndex));
+            rows.addAll(bucketRepository.lockLevelsFrom(productId, heldIndex));
+        }
+        inventoryRepository.lockLevel(productId).ifPresent(rows::add);
+
+        int capacity = 0;
+        for (StockLevelView row : rows) {
+            capacity += capacityOf(row, change);
+        }
+        if (capacity < quantity) {
+            return false;
+        }
+
+        int remaining = quantity;
+        for (StockLevelView row : rows) {
+            int amount = Math.min(remaining, capacityOf(row, change));
+            if (amount == 0) {
+                continue;
+            }
+            int quantityDelta = change == Change.DEDUCT || change == Change.DECREASE ? -amount : 0;
+            int reservedDelta = switch (change) {
+                case RESERVE -> amount;
+                case RELEASE, DEDUCT -> -amount;
+                case DECREASE -> 0;
+            };
+            if (row.getBucketIndex() != null) {
+                bucketRepository.adjustLevels(productId, row.getBucketIndex(), quantityDelta, reservedDelta);
+            } else {
+                inventoryRepository.adjustLevels(productId, quantityDelta, reservedDelta);
+            }
+            remaining -= amount;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    private int capacityOf(StockLevelView row, Change change) {
+        return change == Change.RESERVE || change == Change.DECREASE
+                ? Math.max(0, row.getFreeQuantity())
+                : Math.max(0, row.getReservedQuantity());
+    }
+
+    private int updateBucket(Long productId, int index, int quantity, Change change) {
+        return switch (change) {
+            case RESERVE -> bucketRepository.reserveQuantity(productId, index, quantity);
+            case RELEASE -> bucketRepository.releaseReservedQuantity(productId, index, quantity);
+            case DEDUCT -> bucketRepository.releaseAndDecreaseQuantity(productId, index, quantity);
+            case DECREASE -> bucketRepository.decreaseQuantity(productId, index, quantity);
+        };
+    }
+
+    private int updatePool(Long productId, int quantity, Change change) {
+        return switch (change) {
+            case RESERVE -> inventoryRepository.reserveQuantity(productId, quantity);
+            case RELEASE -> inventoryRepository.releaseReservedQuantity(productId, quantity);
+            case DEDUCT -> inventoryRepository.releaseAndDecreaseQuantity(productId, quantity);
+            case DECREASE -> inventoryRepository.decreaseQuantity(productId, quantity);
+        };
+    }
+
+    private void record(Change change, String path) {
+        meterRegistry.counter("inventory.split-counters.updates", "change", change.name(), "path", path).increment();
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
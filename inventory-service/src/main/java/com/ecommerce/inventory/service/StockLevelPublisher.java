@@ -0,0 +1,96 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.config.KafkaTopicConfig;
+import com.ecommerce.inventory.dto.StockLevelChangedEvent;
+import com.ecommerce.inventory.entity.Inventory;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the current available quantity of products whose stock changed, keyed by productId.
+ * Changes are only marked here; every window the marked products are read back in one query and
+ * sent once each, so a product emits at most one event per window however many units move.
+ */
+@Service
+@Slf4j
+public class StockLevelPublisher {
+    private static final int READ_CHUNK = 500;
+
+    private final InventoryRepository inventoryRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Counter published;
+    private final boolean enabled;
+
+    public StockLevelPublisher(InventoryRepository inventoryRepository,
+                               KafkaTemplate<String, Object> kafkaTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.stock-events.enabled:true}") boolean enabled) {
+        this.inventoryRepository = inventoryRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.enabled = enabled;
+        this.published = Counter.builder("inventory.stock-events.published").register(meterRegistry);
+    }
+
+    /**
+     * Call once the change is committed.
+     */
+    public void markChanged(Collection<Long> productIds) {
+        if (enabled) {
+            changed.addAll(productIds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stock-events.window-ms:1000}")
+    public void publishChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>();
+        for (Iterator<Long> it = changed.iterator(); it.hasNext(); ) {
+            productIds.add(it.next());
+            it.remove();
+        }
+
+        for (int from = 0; from < productIds.size(); from += READ_CHUNK) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + READ_CHUNK, productIds.size()));
+            List<Inventory> levels;
+            try {
+                levels = inventoryRepository.findByProductIdIn(chunk);
+            } catch (RuntimeException e) {
+                log.error("Could not read stock levels for {} products, retrying next window", chunk.size(), e);
+                changed.addAll(chunk);
+                continue;
+            }
+            for (Inventory inventory : levels) {
+                StockLevelChangedEvent event = StockLevelChangedEvent.builder()
+                        .productId(inventory.getProductId())
+                        .availableQuantity(inventory.getAvailableQuantity())
+                        .updatedAt(inventory.getUpdatedAt())
+                        .build();
+                kafkaTemplate.send(KafkaTopicConfig.STOCK_LEVELS_TOPIC, String.valueOf(inventory.getProductId()), event)
+                        .whenComplete((result, ex) -> {
+                            if (ex != null) {
+                                // the next window re-reads and sends the then-current level
+                                changed.add(inventory.getProductId());
+                            } else {
+                                published.increment();
+                            }
+                        });
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.exception.ResourceNotFoundException;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional write-behind reservation path for hot products. Available stock per product lives in
+ * memory, so a reservation is admitted or rejected under that product's own monitor instead of a
+ * row lock. Net reserved deltas are coalesced per product and written to the inventory table every
+ * flush interval; counters are loaded from the table on first use, which is also how they recover
+ * after a restart.
+ *
+ * <p>Reservations admitted since the last flush are lost if the process dies, and counters are
+ * per instance, so enable this only when a single inventory-service instance owns reservations.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.reservation-engine.enabled", havingValue = "true")
+@Slf4j
+public class StockReservationEngine {
+    private static final int MAX_LOAD_ATTEMPTS = 5;
+    private static final long FLUSH_WAIT_MS = 100;
+
+    private final InventoryRepository inventoryRepository;
+    private final AvailabilityCache availabilityCache;
+    private final TransactionTemplate flushTransaction;
+    private final TransactionTemplate loadTransaction;
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final Counter admitted;
+    private final Counter rejected;
+    private final Counter flushRejected;
+    private final Timer flushTimer;
+
+    public StockReservationEngine(InventoryRepository inventoryRepository,
+                                  AvailabilityCache availabilityCache,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.availabilityCache = availabilityCache;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.admitted = Counter.builder("inventory.engine.reservations").tag("result", "admitted").register(meterRegistry);
+        this.rejected = Counter.builder("inventory.engine.reservations").tag("result", "rejected").register(meterRegistry);
+        this.flushRejected = Counter.builder("inventory.engine.flush.rejected").register(meterRegistry);
+        this.flushTimer = Timer.builder("inventory.engine.flush").register(meterRegistry);
+    }
+
+    /**
+     * In-memory state of one product, guarded by its monitor: what may still be admitted, the net
+     * units reserved but not yet written (negative when releases outrun reservations) and what a
+     * running flush is writing. {@code version} moves whenever the table may have changed under the
+     * counter, so a load that overlapped such a change is retried.
+     */
+    private static final class Stock {
+        private boolean loaded;
+        private int available;
+        private int pending;
+        private int inFlight;
+        private long version;
+    }
+
+    /**
+     * Admits the reservation against the in-memory counter. Inside a transaction it is handed back
+     * if that transaction rolls back, so the caller's other writes and the counter stay in step.
+     */
+    public boolean tryReserve(Long productId, int quantity) {
+        if (!reserve(productId, quantity)) {
+            return false;
+        }
+        releaseOnRollback(Map.of(productId, quantity));
+        return true;
+    }
+
+    /**
+     * Reserves every product or none; quantities must already be merged per product. Like
+     * {@link #tryReserve}, the reservation is handed back if the surrounding transaction rolls back.
+     */
+    public boolean tryReserveAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!reserve(entry.getKey(), entry.getValue())) {
+                reserved.forEach(this::release);
+                return false;
+            }
+            reserved.put(entry.getKey(), entry.getValue());
+        }
+        releaseOnRollback(reserved);
+        return true;
+    }
+
+    public void release(Long productId, int quantity) {
+        Stock stock = stock(productId);
+        synchronized (stock) {
+            if (stock.loaded) {
+                stock.available += quantity;
+            }
+            stock.pending -= quantity;
+        }
+    }
+
+    /**
+     * Releases once the surrounding transaction commits, so a rolled-back cancellation does not
+     * free units its reservation rows still hold.
+     */
+    public void releaseAfterCommit(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Long, Integer> toRelease = new LinkedHashMap<>(quantities);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    toRelease.forEach(StockReservationEngine.this::release);
+                }
+            });
+        } else {
+            quantities.forEach(this::release);
+        }
+    }
+
+    public int availableQuantity(Long productId) {
+        Stock stock = stock(productId);
+        while (true) {
+            synchronized (stock) {
+                if (stock.loaded) {
+                    return stock.available;
+                }
+            }
+            load(productId, stock);
+        }
+    }
+
+    /**
+     * Drops the cached counter once the surrounding transaction commits, for writes that change
+     * stock outside the engine (admin updates, restocks); it is reloaded on next use.
+     */
+    public void invalidateAfterCommit(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(productId);
+                }
+            });
+        } else {
+            invalidate(productId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation-engine.flush-interval-ms:100}")
+    public void flush() {
+        flushProducts(new ArrayList<>(stocks.keySet()));
+    }
+
+    /**
+     * Writes pending deltas for the given products now, e.g. before deducting reservations
+     * that may still only exist in memory.
+     */
+    public void flushProducts(Collection<Long> productIds) {
+        synchronized (flushLock) {
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (Long productId : productIds) {
+                Stock stock = stocks.get(productId);
+                if (stock == null) {
+                    continue;
+                }
+                synchronized (stock) {
+                    if (stock.pending != 0) {
+                        deltas.put(productId, stock.pending);
+                        stock.inFlight += stock.pending;
+                        stock.pending = 0;
+                    }
+                }
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            Map<Long, Integer> rejectedDeltas = new TreeMap<>();
+            Timer.Sample sample = Timer.start();
+            try {
+                flushTransaction.executeWithoutResult(status -> {
+                    availabilityCache.invalidateAfterCommit(deltas.keySet());
+                    deltas.forEach((productId, delta) -> {
+                        int updated = delta > 0
+                                ? inventoryRepository.reserveQuantity(productId, delta)
+                                : inventoryRepository.releaseReservedQuantity(productId, -delta);
+                        if (updated == 0) {
+                            rejectedDeltas.put(productId, delta);
+                        }
+                    });
+                });
+            } catch (RuntimeException e) {
+                deltas.forEach((productId, delta) -> settle(productId, delta, false, false));
+                log.error("Reservation flush failed, {} products will be retried", deltas.size(), e);
+                return;
+            } finally {
+                sample.stop(flushTimer);
+            }
+
+            // the admitted reservations still exist, so a rejected delta stays pending for the next
+            // flush; the reloaded counter subtracts it, so it stops admitting until the table catches up
+            deltas.forEach((productId, delta) -> {
+                boolean accepted = !rejectedDeltas.containsKey(productId);
+                if (!accepted) {
+                    log.error("Inventory table rejected a reserved delta of {} for product ID: {}, keeping it pending and resyncing",
+                            delta, productId);
+                    flushRejected.increment();
+                }
+                settle(productId, delta, accepted, !accepted);
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // pending and available change together under the product's monitor, so a load never sees one
+    // without the other
+    private boolean reserve(Long productId, int quantity) {
+        Stock stock = stock(productId);
+        while (true) {
+            synchronized (stock) {
+                if (stock.loaded) {
+                    if (stock.available < quantity) {
+                        rejected.increment();
+                        return false;
+                    }
+                    stock.available -= quantity;
+                    stock.pending += quantity;
+                    admitted.increment();
+                    return true;
+                }
+            }
+            load(productId, stock);
+        }
+    }
+
+    private void releaseOnRollback(Map<Long, Integer> reserved) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    reserved.forEach(StockReservationEngine.this::release);
+                }
+            }
+        });
+    }
+
+    private void invalidate(Long productId) {
+        Stock stock = stocks.get(productId);
+        if (stock == null) {
+            return;
+        }
+        synchronized (stock) {
+            stock.loaded = false;
+            stock.version++;
+        }
+    }
+
+    private void settle(Long productId, int delta, boolean written, boolean resync) {
+        Stock stock = stock(productId);
+        synchronized (stock) {
+            stock.inFlight -= delta;
+            if (!written) {
+                stock.pending += delta;
+            }
+            if (resync) {
+                stock.loaded = false;
+            }
+            stock.version++;
+            stock.notifyAll();
+        }
+    }
+
+    /**
+     * Loads the counter as the table's available quantity minus what is still pending. The row is
+     * read without holding any engine lock, so a flush waiting on rows the caller has locked cannot
+     * stall other products, and in a transaction of its own, so the caller's snapshot cannot predate
+     * the last flush. The result is kept only if no flush ran or finished meanwhile.
+     */
+    private void load(Long productId, Stock stock) {
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long version;
+            synchronized (stock) {
+                if (stock.loaded) {
+                    return;
+                }
+                if (stock.inFlight != 0) {
+                    awaitFlush(stock);
+                    continue;
+                }
+                version = stock.version;
+            }
+
+            Integer tableAvailable = loadTransaction.execute(status -> inventoryRepository.findByProductId(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId.toString()))
+                    .getAvailableQuantity());
+
+            synchronized (stock) {
+                if (stock.loaded) {
+                    return;
+                }
+                if (stock.version == version && stock.inFlight == 0) {
+                    stock.available = tableAvailable - stock.pending;
+                    stock.loaded = true;
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("Could not load the reservation counter for product ID " + productId
+                + " while its flushes were running");
+    }
+
+    // called holding the stock's monitor; settle() wakes us
+    private void awaitFlush(Stock stock) {
+        try {
+            stock.wait(FLUSH_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a reservation flush", e);
+        }
+    }
+
+    private Stock stock(Long productId) {
+        return stocks.computeIfAbsent(productId, id -> new Stock());
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.inventory.benchmark;
+
+import com.ecommerce.inventory.entity.Inventory;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent reservations of one SKU through the old {@code reserveStock} sequence (locking SELECT,
+ * conditional UPDATE, re-read) and through the conditional UPDATE alone followed by the response
+ * read. Prints p99 latency and the InnoDB row lock waits and wait time each run adds. Run with
+ * {@code mvn -Pbenchmark test}; needs Docker.
+ */
+@Tag("benchmark")
+@Testcontainers
+@DataJpaTest(showSql = false, properties = "spring.datasource.hikari.maximum-pool-size=40")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConditionalReservationBenchmark {
+    private static final int THREADS = 32;
+    private static final int RESERVATIONS_PER_THREAD = 200;
+    private static final int STOCK = THREADS * RESERVATIONS_PER_THREAD;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void lockWaitAndTailLatency() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long lockFirstProduct = createInventory(1L);
+        Long conditionalProduct = createInventory(2L);
+
+        LockedRun lockFirst = measure(() -> Boolean.TRUE.equals(transaction.execute(status -> {
+            Inventory locked = inventoryRepository.findByProductIdWithLock(lockFirstProduct).orElseThrow();
+            if (locked.getAvailableQuantity() < 1 || inventoryRepository.reserveQuantity(lockFirstProduct, 1) == 0) {
+                return false;
+            }
+            return inventoryRepository.findByProductId(lockFirstProduct).isPresent();
+        })));
+        LockedRun conditional = measure(() -> Boolean.TRUE.equals(transaction.execute(status ->
+                inventoryRepository.reserveQuantity(conditionalProduct, 1) == 1
+                        && inventoryRepository.findByProductId(conditionalProduct).isPresent())));
+
+        System.out.printf("%d threads reserving one SKU%n  SELECT FOR UPDATE + UPDATE + read: %s%n"
+                + "  conditional UPDATE + read:         %s%n", THREADS, lockFirst, conditional);
+        assertThat(lockFirst.run().succeeded()).isEqualTo(STOCK);
+        assertThat(conditional.run().succeeded()).isEqualTo(STOCK);
+        assertThat(reservedQuantity(lockFirstProduct)).isEqualTo(STOCK);
+        assertThat(reservedQuantity(conditionalProduct)).isEqualTo(STOCK);
+    }
+
+    private LockedRun measure(BooleanSupplier reservation) throws Exception {
+        long waitsBefore = globalStatus("Innodb_row_lock_waits");
+        long timeBefore = globalStatus("Innodb_row_lock_time");
+        ContentionRun.Result run = ContentionRun.run(THREADS, RESERVATIONS_PER_THREAD, reservation);
+        return new LockedRun(run, globalStatus("Innodb_row_lock_waits") - waitsBefore,
+                globalStatus("Innodb_row_lock_time") - timeBefore);
+    }
+
+    private long globalStatus(String name) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW GLOBAL STATUS LIKE '" + name + "'")) {
+            rs.next();
+            return rs.getLong(2);
+        }
+    }
+
+    private Long createInventory(Long productId) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(productId);
+        inventory.setQuantity(STOCK);
+        inventory.setReservedQuantity(0);
+        inventoryRepository.saveAndFlush(inventory);
+        return productId;
+    }
+
+    private int reservedQuantity(Long productId) {
+        return inventoryRepository.findByProductId(productId).orElseThrow().getReservedQuantity();
+    }
+
+    private record LockedRun(ContentionRun.Result run, long lockWaits, long lockWaitMillis) {
+        @Override
+        public String toString() {
+            return String.format("%s; %,d row lock waits, %,d ms waited", run, lockWaits, lockWaitMillis);
+        }
+    }
+}
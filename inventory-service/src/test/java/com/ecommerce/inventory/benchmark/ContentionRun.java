@@ -0,0 +1,70 @@
+package com.ecommerce.inventory.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs one operation from many threads released at the same moment and summarizes throughput and
+ * per-call latency, for the contention benchmarks in this package.
+ */
+final class ContentionRun {
+    private ContentionRun() {
+    }
+
+    static Result run(int threads, int operationsPerThread, BooleanSupplier operation) throws Exception {
+        long[] latencies = new long[threads * operationsPerThread];
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int offset = t * operationsPerThread;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        long begin = System.nanoTime();
+                        if (operation.getAsBoolean()) {
+                            succeeded.incrementAndGet();
+                        }
+                        latencies[offset + i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            Arrays.sort(latencies);
+            return new Result(latencies.length, succeeded.get(), latencies.length * 1e9 / elapsed,
+                    percentileMicros(latencies, 0.50), percentileMicros(latencies, 0.99));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static double percentileMicros(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000.0;
+    }
+
+    record Result(int operations, int succeeded, double opsPerSecond, double p50Micros, double p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%,d ops (%,d succeeded), %,.0f ops/s, p50 %,.0f us, p99 %,.0f us",
+                    operations, succeeded, opsPerSecond, p50Micros, p99Micros);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.inventory.benchmark;
+
+import com.ecommerce.inventory.entity.Inventory;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.service.AvailabilityCache;
+import com.ecommerce.inventory.service.StockReservationEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Single-SKU flash sale: many threads reserve one unit at a time, each in its own transaction like
+ * {@code reserveStock}, either through a PESSIMISTIC_WRITE row lock (the path the engine replaces)
+ * or through {@link StockReservationEngine} with its write-behind flush running. Run with
+ * {@code mvn -Pbenchmark test}; needs Docker.
+ */
+@Tag("benchmark")
+@Testcontainers
+@DataJpaTest(showSql = false, properties = "spring.datasource.hikari.maximum-pool-size=40")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationEngineContentionBenchmark {
+    private static final int THREADS = 32;
+    private static final int RESERVATIONS_PER_THREAD = 200;
+    private static final int STOCK = THREADS * RESERVATIONS_PER_THREAD;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void engineAgainstRowLock() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long rowLockProduct = createInventory(1L);
+        Long engineProduct = createInventory(2L);
+
+        ContentionRun.Result rowLock = ContentionRun.run(THREADS, RESERVATIONS_PER_THREAD, () ->
+                Boolean.TRUE.equals(transaction.execute(status -> {
+                    Inventory inventory = inventoryRepository.findByProductIdWithLock(rowLockProduct).orElseThrow();
+                    if (inventory.getAvailableQuantity() < 1) {
+                        return false;
+                    }
+                    inventory.setReservedQuantity(inventory.getReservedQuantity() + 1);
+                    return true;
+                })));
+
+        StockReservationEngine engine = newEngine();
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(engine::flush, 100, 100, TimeUnit.MILLISECONDS);
+        ContentionRun.Result engineRun;
+        try {
+            engineRun = ContentionRun.run(THREADS, RESERVATIONS_PER_THREAD, () ->
+                    Boolean.TRUE.equals(transaction.execute(status -> engine.tryReserve(engineProduct, 1))));
+        } finally {
+            flusher.shutdown();
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        engine.flush();
+
+        System.out.printf("%d threads reserving one SKU%n  row lock: %s%n  engine:   %s%n", THREADS, rowLock, engineRun);
+        assertThat(rowLock.succeeded()).isEqualTo(STOCK);
+        assertThat(engineRun.succeeded()).isEqualTo(STOCK);
+        assertThat(reservedQuantity(rowLockProduct)).isEqualTo(STOCK);
+        assertThat(reservedQuantity(engineProduct)).isEqualTo(STOCK);
+        assertThat(engineRun.opsPerSecond()).isGreaterThan(rowLock.opsPerSecond());
+    }
+
+    @Test
+    void rolledBackReservationsAreHandedBack() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long productId = createInventory(3L);
+        StockReservationEngine engine = newEngine();
+
+        transaction.executeWithoutResult(status -> {
+            assertThat(engine.tryReserve(productId, 5)).isTrue();
+            status.setRollbackOnly();
+        });
+        engine.flush();
+
+        assertThat(engine.availableQuantity(productId)).isEqualTo(STOCK);
+        assertThat(reservedQuantity(productId)).isZero();
+    }
+
+    private StockReservationEngine newEngine() {
+        return new StockReservationEngine(inventoryRepository, mock(AvailabilityCache.class), transactionManager,
+                new SimpleMeterRegistry());
+    }
+
+    private Long createInventory(Long productId) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(productId);
+        inventory.setQuantity(STOCK);
+        inventory.setReservedQuantity(0);
+        inventoryRepository.saveAndFlush(inventory);
+        return productId;
+    }
+
+    private int reservedQuantity(Long productId) {
+        return inventoryRepository.findByProductId(productId).orElseThrow().getReservedQuantity();
+    }
+}
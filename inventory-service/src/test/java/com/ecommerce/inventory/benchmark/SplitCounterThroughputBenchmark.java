@@ -0,0 +1,95 @@
+package com.ecommerce.inventory.benchmark;
+
+import com.ecommerce.inventory.entity.Inventory;
+import com.ecommerce.inventory.repository.InventoryBucketRepository;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.service.SplitStockCounter;
+import com.ecommerce.inventory.service.StockReservationEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservations of one hot product from many threads, against its single inventory row and against
+ * the same stock split into {@value #BUCKETS} bucket rows by {@link SplitStockCounter}. Stock is
+ * twice the demand so neither run is measuring exhaustion. Run with {@code mvn -Pbenchmark test};
+ * needs Docker.
+ */
+@Tag("benchmark")
+@Testcontainers
+@DataJpaTest(showSql = false, properties = "spring.datasource.hikari.maximum-pool-size=40")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SplitCounterThroughputBenchmark {
+    private static final int THREADS = 32;
+    private static final int RESERVATIONS_PER_THREAD = 200;
+    private static final int BUCKETS = 8;
+    private static final int STOCK = 2 * THREADS * RESERVATIONS_PER_THREAD;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryBucketRepository bucketRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void splitAgainstSingleRow() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        SplitStockCounter counter = new SplitStockCounter(inventoryRepository, bucketRepository,
+                applicationContext.getBeanProvider(StockReservationEngine.class), transactionManager,
+                new SimpleMeterRegistry(), 64, 0.2);
+        Long plainProduct = createInventory(1L);
+        Long splitProduct = createInventory(2L);
+        transaction.executeWithoutResult(status -> counter.split(splitProduct, BUCKETS));
+
+        ContentionRun.Result plain = ContentionRun.run(THREADS, RESERVATIONS_PER_THREAD, () ->
+                Boolean.TRUE.equals(transaction.execute(status -> inventoryRepository.reserveQuantity(plainProduct, 1) == 1)));
+        ContentionRun.Result split = ContentionRun.run(THREADS, RESERVATIONS_PER_THREAD, () ->
+                Boolean.TRUE.equals(transaction.execute(status ->
+                        counter.apply(splitProduct, 1, SplitStockCounter.Change.RESERVE))));
+
+        System.out.printf("%d threads reserving one product%n  single row: %s%n  %d buckets:  %s%n",
+                THREADS, plain, BUCKETS, split);
+        assertThat(plain.succeeded()).isEqualTo(plain.operations());
+        assertThat(split.succeeded()).isEqualTo(split.operations());
+        assertThat(totalReserved(plainProduct)).isEqualTo(plain.operations());
+        assertThat(totalReserved(splitProduct)).isEqualTo(split.operations());
+    }
+
+    private Long createInventory(Long productId) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(productId);
+        inventory.setQuantity(STOCK);
+        inventory.setReservedQuantity(0);
+        inventoryRepository.saveAndFlush(inventory);
+        return productId;
+    }
+
+    private int totalReserved(Long productId) {
+        return inventoryRepository.findByProductId(productId).orElseThrow().getTotalReservedQuantity();
+    }
+}
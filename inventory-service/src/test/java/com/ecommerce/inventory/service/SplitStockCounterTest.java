@@ -0,0 +1,99 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.repository.InventoryBucketRepository;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.StockLevelView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The spread fallback must see every bucket of a product, including those below the bucket whose
+ * conditional UPDATE just failed, and still lock buckets before the pool row.
+ */
+class SplitStockCounterTest {
+    private static final Long PRODUCT_ID = 7L;
+
+    private InventoryRepository inventoryRepository;
+    private InventoryBucketRepository bucketRepository;
+    private SplitStockCounter counter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        bucketRepository = mock(InventoryBucketRepository.class);
+        counter = new SplitStockCounter(inventoryRepository, bucketRepository, mock(ObjectProvider.class),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 64, 0.2);
+    }
+
+    @Test
+    void spreadUsesFreeUnitsBelowTheFailedBucket() {
+        // the snapshot shows only bucket 2 able to take 5 units; by the UPDATE it is full and bucket 0
+        // has had 5 units released
+        when(bucketRepository.findLevels(PRODUCT_ID))
+                .thenReturn(List.of(level(0, 10, 10), level(1, 10, 10), level(2, 10, 5)));
+        when(bucketRepository.reserveQuantity(PRODUCT_ID, 2, 5)).thenReturn(0);
+        when(bucketRepository.lockUnlockedLevelsBelow(PRODUCT_ID, 2))
+                .thenReturn(List.of(level(0, 10, 5), level(1, 10, 10)));
+        when(bucketRepository.lockLevelsFrom(PRODUCT_ID, 2)).thenReturn(List.of(level(2, 10, 10)));
+        when(inventoryRepository.lockLevel(PRODUCT_ID)).thenReturn(Optional.of(level(null, 3, 3)));
+
+        assertThat(counter.apply(PRODUCT_ID, 5, SplitStockCounter.Change.RESERVE)).isTrue();
+
+        InOrder locks = inOrder(bucketRepository, inventoryRepository);
+        locks.verify(bucketRepository).lockUnlockedLevelsBelow(PRODUCT_ID, 2);
+        locks.verify(bucketRepository).lockLevelsFrom(PRODUCT_ID, 2);
+        locks.verify(inventoryRepository).lockLevel(PRODUCT_ID);
+        verify(bucketRepository).adjustLevels(PRODUCT_ID, 0, 0, 5);
+        verify(inventoryRepository, never()).adjustLevels(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void spreadWithoutCandidateLocksAllBuckets() {
+        when(bucketRepository.findLevels(PRODUCT_ID)).thenReturn(List.of(level(0, 10, 7), level(1, 10, 7)));
+        when(bucketRepository.lockLevels(PRODUCT_ID)).thenReturn(List.of(level(0, 10, 7), level(1, 10, 7)));
+        when(inventoryRepository.lockLevel(PRODUCT_ID)).thenReturn(Optional.of(level(null, 0, 0)));
+
+        assertThat(counter.apply(PRODUCT_ID, 5, SplitStockCounter.Change.RESERVE)).isTrue();
+        assertThat(counter.apply(PRODUCT_ID, 7, SplitStockCounter.Change.RESERVE)).isFalse();
+
+        verify(bucketRepository).adjustLevels(PRODUCT_ID, 0, 0, 3);
+        verify(bucketRepository).adjustLevels(PRODUCT_ID, 1, 0, 2);
+        verify(bucketRepository, never()).lockUnlockedLevelsBelow(anyLong(), anyInt());
+    }
+
+    private static StockLevelView level(Integer bucketIndex, int quantity, int reservedQuantity) {
+        return new StockLevelView() {
+            @Override
+            public Integer getBucketIndex() {
+                return bucketIndex;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Integer getReservedQuantity() {
+                return reservedQuantity;
+            }
+        };
+    }
+}
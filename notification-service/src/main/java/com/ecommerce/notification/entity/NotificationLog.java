@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class NotificationLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_log_seq")
+    @SequenceGenerator(name = "notification_log_seq", sequenceName = "notification_log_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
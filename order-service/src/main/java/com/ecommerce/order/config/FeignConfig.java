@@ -0,0 +1,13 @@
+package com.ecommerce.order.config;
+
+import com.ecommerce.order.feign.ProductServiceClient;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Kept off the application class so JPA slice tests do not try to build Feign clients.
+ */
+@Configuration
+@EnableFeignClients(basePackageClasses = ProductServiceClient.class)
+public class FeignConfig {
+}
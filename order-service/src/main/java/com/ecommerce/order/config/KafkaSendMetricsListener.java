@@ -0,0 +1,44 @@
+package com.ecommerce.order.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.support.ProducerListener;
+
+import java.time.Duration;
+
+/**
+ * Records per-topic send outcomes. Latency is measured from the record's CreateTime, which the
+ * producer stamps when {@code send} is called, to the broker acknowledgement.
+ */
+@Slf4j
+public class KafkaSendMetricsListener implements ProducerListener<String, Object> {
+    private final MeterRegistry meterRegistry;
+
+    public KafkaSendMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onSuccess(ProducerRecord<String, Object> record, RecordMetadata metadata) {
+        Timer.builder("kafka.producer.send")
+                .tag("topic", record.topic())
+                .tag("result", "success")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - metadata.timestamp())));
+    }
+
+    @Override
+    public void onError(ProducerRecord<String, Object> record, RecordMetadata metadata, Exception exception) {
+        Counter.builder("kafka.producer.send.errors")
+                .tag("topic", record.topic())
+                .tag("exception", exception.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+        log.error("Failed to send record to topic: {}", record.topic(), exception);
+    }
+}
@@ -1,8 +1,12 @@
 package com.ecommerce.order.controller;
 
 import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.dto.CursorPage;
 import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderSummaryResponse;
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.IdempotencyService;
+import com.ecommerce.order.service.OrderHistoryRebuilder;
 import com.ecommerce.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,20 +16,23 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 @Tag(name = "Orders", description = "Order Management API")
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderHistoryRebuilder orderHistoryRebuilder;
 
     @PostMapping
-    @Operation(summary = "Create a new order")
+    @Operation(summary = "Create a new order; retries with the same Idempotency-Key return the original order")
     public ResponseEntity<OrderResponse> createOrder(@RequestHeader("X-User-Id") Long userId,
+                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                      @Valid @RequestBody CreateOrderRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(userId, request));
+        OrderResponse response = idempotencyService.execute(userId, idempotencyKey, request,
+                () -> orderService.createOrder(userId, request, idempotencyKey));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @GetMapping("/{id}")
@@ -35,9 +42,19 @@ public class OrderController {
     }
 
     @GetMapping("/user")
-    @Operation(summary = "Get user's orders")
-    public ResponseEntity<List<OrderResponse>> getUserOrders(@RequestHeader("X-User-Id") Long userId) {
-        return ResponseEntity.ok(orderService.getUserOrders(userId));
+    @Operation(summary = "Get user's orders, newest first, one cursor page at a time")
+    public ResponseEntity<CursorPage<OrderSummaryResponse>> getUserOrders(@RequestHeader("X-User-Id") Long userId,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getUserOrders(userId, cursor, size));
+    }
+
+    @PostMapping("/history/rebuild")
+    @Operation(summary = "Rebuild the order history read model from the order tables")
+    public ResponseEntity<Void> rebuildOrderHistory() {
+        return orderHistoryRebuilder.startRebuild()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 
     @PutMapping("/{id}/status")
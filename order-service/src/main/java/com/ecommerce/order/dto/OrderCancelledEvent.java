@@ -0,0 +1,17 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCancelledEvent {
+    private Long orderId;
+    private Long userId;
+    private String previousStatus;
+    private List<OrderItemDto> items;
+}
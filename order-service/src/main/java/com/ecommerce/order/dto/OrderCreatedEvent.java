@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -13,4 +15,6 @@ public class OrderCreatedEvent {
     private Long orderId;
     private Long userId;
     private List<OrderItemDto> items;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
 }
\ No newline at end of file
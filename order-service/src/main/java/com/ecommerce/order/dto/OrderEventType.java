@@ -0,0 +1,25 @@
+package com.ecommerce.order.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Order lifecycle topics. Every event is keyed by its orderId, so within one topic the default
+ * partitioner (murmur2 of the key modulo the partition count) sends all events for one order to
+ * the same partition, and a listener with up to one thread per partition sees them in the order
+ * they were produced. Nothing orders events across topics: an order's paid, shipped or cancelled
+ * event can be consumed before its created event, so every consumer of more than one of these
+ * topics must tolerate that reordering. Changing the partition count of a live topic remaps keys,
+ * so grow it only while the topic is drained.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OrderEventType {
+    ORDER_CREATED("order-created", OrderCreatedEvent.class),
+    ORDER_PAID("order-paid", OrderPaidEvent.class),
+    ORDER_SHIPPED("order-shipped", OrderShippedEvent.class),
+    ORDER_CANCELLED("order-cancelled", OrderCancelledEvent.class);
+
+    private final String topic;
+    private final Class<?> payloadType;
+}
@@ -8,11 +8,13 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders", indexes = {
-    @Index(name = "idx_user_id", columnList = "userId"),
+    @Index(name = "idx_user_created_id", columnList = "userId,createdAt,id"),
     @Index(name = "idx_order_status", columnList = "status")
 })
 @Data
@@ -20,7 +22,8 @@ import java.util.List;
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,6 +33,11 @@ public class Order {
     @Column(nullable = false, length = 20)
     private OrderStatus status;
 
+    /** Status the order left in its latest transition; set by the same UPDATE that changes {@code status}. */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus previousStatus;
+
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
 
@@ -57,6 +65,19 @@ public class Order {
     }
 
     public enum OrderStatus {
-        CREATED, PAID, SHIPPED, CANCELLED
+        CREATED, PAID, SHIPPED, CANCELLED;
+
+        /**
+         * Statuses an order may move from into this one: CREATED -> PAID -> SHIPPED,
+         * and CREATED or PAID -> CANCELLED.
+         */
+        public Set<OrderStatus> allowedPredecessors() {
+            return switch (this) {
+                case CREATED -> EnumSet.noneOf(OrderStatus.class);
+                case PAID -> EnumSet.of(CREATED);
+                case SHIPPED -> EnumSet.of(PAID);
+                case CANCELLED -> EnumSet.of(CREATED, PAID);
+            };
+        }
     }
 }
\ No newline at end of file
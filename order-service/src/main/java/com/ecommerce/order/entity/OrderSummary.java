@@ -0,0 +1,44 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized order-history row, one per order, maintained by OrderHistoryProjector from order
+ * lifecycle events so history reads never touch the orders/order_items write tables.
+ */
+@Entity
+@Table(name = "order_summaries", indexes = {
+    @Index(name = "idx_summary_user_created", columnList = "userId,createdAt,orderId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderStatus status;
+
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
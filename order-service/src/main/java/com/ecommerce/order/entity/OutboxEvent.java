@@ -0,0 +1,66 @@
+package com.ecommerce.order.entity;
+
+import com.ecommerce.order.dto.OrderEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_id", columnList = "status,id"),
+    @Index(name = "idx_outbox_key_id", columnList = "eventKey,id"),
+    @Index(name = "idx_outbox_sent_at", columnList = "sentAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private OrderEventType eventType;
+
+    @Column(length = 100)
+    private String eventKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    // claimed by a relay run, or backing off after a failed send, until then
+    private LocalDateTime leaseUntil;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = Status.PENDING;
+        }
+    }
+
+    /**
+     * FAILED events exhausted their attempts and are parked; later events with the same key wait
+     * behind them until the row is set back to PENDING or deleted.
+     */
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.order.exception;
+
+public class InvalidOrderStateException extends RuntimeException {
+    public InvalidOrderStateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.order.feign;
+
+import com.ecommerce.order.dto.ProductResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
+
+@FeignClient(name = "product-catalog-service")
+public interface ProductServiceClient {
+    @GetMapping("/api/products/batch")
+    List<ProductResponse> getProductsByIds(@RequestParam("ids") Collection<Long> ids);
+}
@@ -1,13 +1,42 @@
 package com.ecommerce.order.repository;
 
 import com.ecommerce.order.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByStatus(Order.OrderStatus status);
+
+    /**
+     * MySQL assigns single-table UPDATE columns left to right, so previousStatus receives the
+     * status the row held before this statement.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.previousStatus = o.status, o.status = :status, o.updatedAt = :updatedAt "
+            + "WHERE o.id = :id AND o.status IN :expected")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("status") Order.OrderStatus status,
+                         @Param("expected") Collection<Order.OrderStatus> expected,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    @Query("SELECT MIN(o.id) FROM Order o")
+    Long findMinId();
+
+    @Query("SELECT MAX(o.id) FROM Order o")
+    Long findMaxId();
 }
\ No newline at end of file
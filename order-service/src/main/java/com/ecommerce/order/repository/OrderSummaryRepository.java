@@ -0,0 +1,73 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+    // Keyset pages over idx_summary_user_created; the Pageable only carries the LIMIT
+    @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<OrderSummary> findFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId AND " +
+           "(s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.orderId < :orderId)) " +
+           "ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<OrderSummary> findPageBefore(@Param("userId") Long userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("orderId") Long orderId,
+                                      Pageable pageable);
+
+    // Fills in a placeholder left by an earlier status event, but never resets a status that later
+    // events already advanced
+    @Modifying
+    @Query(value = "INSERT INTO order_summaries (order_id, user_id, status, item_count, total_amount, created_at, updated_at) " +
+                   "VALUES (:orderId, :userId, 'CREATED', :itemCount, :totalAmount, :createdAt, :createdAt) " +
+                   "ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), item_count = VALUES(item_count), " +
+                   "total_amount = VALUES(total_amount), created_at = VALUES(created_at)", nativeQuery = true)
+    int insertIfAbsent(@Param("orderId") Long orderId,
+                       @Param("userId") Long userId,
+                       @Param("itemCount") Integer itemCount,
+                       @Param("totalAmount") BigDecimal totalAmount,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.status = :status, s.updatedAt = :updatedAt " +
+           "WHERE s.orderId = :orderId AND s.status IN :expected")
+    int updateStatus(@Param("orderId") Long orderId,
+                     @Param("status") Order.OrderStatus status,
+                     @Param("expected") Collection<Order.OrderStatus> expected,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Row for a status event that arrived before its order's created event; insertIfAbsent completes it
+    @Modifying
+    @Query(value = "INSERT INTO order_summaries (order_id, user_id, status, item_count, total_amount, created_at, updated_at) " +
+                   "VALUES (:orderId, :userId, :status, :itemCount, :totalAmount, :now, :now) " +
+                   "ON DUPLICATE KEY UPDATE order_id = order_id", nativeQuery = true)
+    int insertPlaceholder(@Param("orderId") Long orderId,
+                          @Param("userId") Long userId,
+                          @Param("status") String status,
+                          @Param("itemCount") Integer itemCount,
+                          @Param("totalAmount") BigDecimal totalAmount,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_summaries (order_id, user_id, status, item_count, total_amount, created_at, updated_at) " +
+                   "SELECT o.id, o.user_id, o.status, COALESCE(SUM(i.quantity), 0), o.total_amount, o.created_at, o.updated_at " +
+                   "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id " +
+                   "WHERE o.id BETWEEN :fromId AND :toId " +
+                   "GROUP BY o.id, o.user_id, o.status, o.total_amount, o.created_at, o.updated_at " +
+                   "ON DUPLICATE KEY UPDATE status = VALUES(status), item_count = VALUES(item_count), " +
+                   "total_amount = VALUES(total_amount), updated_at = VALUES(updated_at)", nativeQuery = true)
+    int rebuildRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // lock.timeout -2 maps to SKIP LOCKED so several relay instances can drain disjoint batches.
+    // An event is only eligible once every older event with its key has been sent, so each
+    // order's events reach Kafka in order even across failures and relay instances.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = com.ecommerce.order.entity.OutboxEvent.Status.PENDING " +
+           "AND (e.leaseUntil IS NULL OR e.leaseUntil < :now) " +
+           "AND NOT EXISTS (SELECT p.id FROM OutboxEvent p WHERE p.eventKey = e.eventKey AND p.id < e.id " +
+           "AND p.status <> com.ecommerce.order.entity.OutboxEvent.Status.SENT) " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findBatchForRelay(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.leaseUntil = :leaseUntil WHERE e.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.ecommerce.order.entity.OutboxEvent.Status.SENT, e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.leaseUntil = :retryAt WHERE e.id IN :ids")
+    int recordFailure(@Param("ids") Collection<Long> ids, @Param("retryAt") LocalDateTime retryAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.ecommerce.order.entity.OutboxEvent.Status.FAILED, " +
+           "e.attempts = e.attempts + 1, e.leaseUntil = NULL WHERE e.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.ecommerce.order.entity.OutboxEvent.Status.SENT AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
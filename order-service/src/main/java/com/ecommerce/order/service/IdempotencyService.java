@@ -0,0 +1,166 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.CreateOrderRequest;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.IdempotencyRecord;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes order creation safe to retry with an {@code Idempotency-Key}. Replays return the stored
+ * response; duplicates racing on this instance wait on the original's future, and duplicates on
+ * other instances block on the unique (userId, idempotencyKey) row until the original commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    public OrderResponse execute(Long userId, String key, CreateOrderRequest request, Supplier<OrderResponse> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        Optional<OrderResponse> stored = findStoredResponse(userId, key, requestHash);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        String slot = userId + ":" + key;
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight original = inFlight.putIfAbsent(slot, mine);
+        if (original != null) {
+            return awaitOriginal(original, requestHash);
+        }
+
+        try {
+            OrderResponse response = action.get();
+            mine.result().complete(response);
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            // another instance committed the same key first
+            OrderResponse response = findStoredResponse(userId, key, requestHash).orElseThrow(() -> e);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(slot, mine);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public IdempotencyRecord reserve(Long userId, String key, CreateOrderRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        // an expired row the purge job has not reached yet must not block reuse of the key
+        idempotencyRecordRepository.deleteExpiredKey(userId, key, now);
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setUserId(userId);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(hash(request));
+        record.setExpiresAt(now.plusHours(ttlHours));
+        return idempotencyRecordRepository.saveAndFlush(record);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(IdempotencyRecord record, OrderResponse response) {
+        try {
+            record.setResponse(objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order response", e);
+        }
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron:0 30 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Optional<OrderResponse> findStoredResponse(Long userId, String key, String requestHash) {
+        return idempotencyRecordRepository.findByUserIdAndIdempotencyKeyAndExpiresAtAfter(userId, key, LocalDateTime.now())
+                .filter(record -> record.getResponse() != null)
+                .map(record -> {
+                    if (!record.getRequestHash().equals(requestHash)) {
+                        throw new IllegalArgumentException("Idempotency-Key was already used with a different request");
+                    }
+                    try {
+                        return objectMapper.readValue(record.getResponse(), OrderResponse.class);
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("Could not read stored order response", e);
+                    }
+                });
+    }
+
+    private OrderResponse awaitOriginal(InFlight original, String requestHash) {
+        if (!original.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used with a different request");
+        }
+        try {
+            return original.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("The original request for this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private String hash(CreateOrderRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash order request", e);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResponse> result) {}
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderCancelledEvent;
+import com.ecommerce.order.dto.OrderCreatedEvent;
+import com.ecommerce.order.dto.OrderItemDto;
+import com.ecommerce.order.dto.OrderPaidEvent;
+import com.ecommerce.order.dto.OrderShippedEvent;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps the order_summaries read model in step with order lifecycle events. Each lifecycle event
+ * has its own topic, so a status event can arrive before the order's created event; it then
+ * inserts a placeholder row carrying the status, which the created event completes without
+ * touching the status. Status updates only apply along allowed transitions, so redeliveries and
+ * replays after a rebuild cannot move an order backwards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderHistoryProjector {
+    private static final String GROUP_ID = "order-history-projector";
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    @KafkaListener(topics = "order-created", groupId = GROUP_ID)
+    @Transactional
+    public void onOrderCreated(OrderCreatedEvent event) {
+        if (event.getCreatedAt() == null || event.getTotalAmount() == null) {
+            log.warn("Skipping order created event without summary fields for order ID: {}", event.getOrderId());
+            return;
+        }
+        orderSummaryRepository.insertIfAbsent(event.getOrderId(), event.getUserId(), itemCount(event.getItems()),
+                event.getTotalAmount(), event.getCreatedAt());
+    }
+
+    @KafkaListener(topics = "order-paid", groupId = GROUP_ID)
+    @Transactional
+    public void onOrderPaid(OrderPaidEvent event) {
+        applyStatus(event.getOrderId(), event.getUserId(), Order.OrderStatus.PAID, itemCount(event.getItems()),
+                event.getTotalAmount());
+    }
+
+    @KafkaListener(topics = "order-shipped", groupId = GROUP_ID)
+    @Transactional
+    public void onOrderShipped(OrderShippedEvent event) {
+        applyStatus(event.getOrderId(), event.getUserId(), Order.OrderStatus.SHIPPED, 0, BigDecimal.ZERO);
+    }
+
+    @KafkaListener(topics = "order-cancelled", groupId = GROUP_ID)
+    @Transactional
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        applyStatus(event.getOrderId(), event.getUserId(), Order.OrderStatus.CANCELLED, itemCount(event.getItems()),
+                BigDecimal.ZERO);
+    }
+
+    // Placeholder amounts only stand until the created event fills in the real ones
+    private void applyStatus(Long orderId, Long userId, Order.OrderStatus status, int itemCount, BigDecimal totalAmount) {
+        LocalDateTime now = LocalDateTime.now();
+        if (orderSummaryRepository.updateStatus(orderId, status, status.allowedPredecessors(), now) == 1) {
+            return;
+        }
+        if (orderSummaryRepository.insertPlaceholder(orderId, userId, status.name(), itemCount,
+                totalAmount != null ? totalAmount : BigDecimal.ZERO, now) == 1) {
+            log.debug("Order summary {} not projected yet; inserted placeholder with status {}", orderId, status);
+        } else {
+            log.debug("Order summary {} not moved to {}; already applied", orderId, status);
+        }
+    }
+
+    private int itemCount(List<OrderItemDto> items) {
+        return items == null ? 0 : items.stream().mapToInt(OrderItemDto::getQuantity).sum();
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rebuilds order_summaries from the orders/order_items tables. The ID range is split into chunks
+ * that are upserted in parallel, each with one INSERT ... SELECT in its own transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderHistoryRebuilder {
+    private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${order-history.rebuild.chunk-size:5000}")
+    private long chunkSize;
+
+    @Value("${order-history.rebuild.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * Starts a rebuild in the background; returns false if one is already running.
+     */
+    public boolean startRebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        CompletableFuture.runAsync(this::rebuild)
+                .whenComplete((result, ex) -> {
+                    running.set(false);
+                    if (ex != null) {
+                        log.error("Order history rebuild failed", ex);
+                    }
+                });
+        return true;
+    }
+
+    private void rebuild() {
+        Long minId = orderRepository.findMinId();
+        Long maxId = orderRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            log.info("Order history rebuild skipped, no orders");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + chunkSize - 1, maxId);
+                chunks.add(executor.submit(() -> transactionTemplate.execute(
+                        status -> orderSummaryRepository.rebuildRange(chunkFrom, chunkTo))));
+            }
+
+            long affected = 0;
+            for (Future<Integer> chunk : chunks) {
+                affected += chunk.get();
+            }
+            log.info("Order history rebuilt from {} chunks ({} rows affected) in {} ms",
+                    chunks.size(), affected, System.currentTimeMillis() - started);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Order history rebuild interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Order history rebuild failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
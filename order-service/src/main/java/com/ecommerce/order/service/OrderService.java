@@ -1,18 +1,28 @@
 package com.ecommerce.order.service;
 
 import com.ecommerce.order.dto.*;
+import com.ecommerce.order.entity.IdempotencyRecord;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.entity.OrderSummary;
+import com.ecommerce.order.exception.InvalidOrderStateException;
 import com.ecommerce.order.exception.ResourceNotFoundException;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,14 +30,39 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderService {
     private final OrderRepository orderRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OutboxService outboxService;
+    private final ProductPriceService productPriceService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${orders.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${orders.page.max-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Prices the items from the catalog before any transaction is opened, so a slow catalog never
+     * holds a pooled connection; only the inserts run in the transaction.
+     */
+    public OrderResponse createOrder(Long userId, CreateOrderRequest request, String idempotencyKey) {
+        Map<Long, BigDecimal> prices = productPriceService.getPrices(request.getItems().stream()
+                .map(OrderItemRequest::getProductId)
+                .toList());
+        return transactionTemplate.execute(status -> saveOrder(userId, request, idempotencyKey, prices));
+    }
 
-    @Transactional
-    public OrderResponse createOrder(Long userId, CreateOrderRequest request) {
+    private OrderResponse saveOrder(Long userId, CreateOrderRequest request, String idempotencyKey,
+                                    Map<Long, BigDecimal> prices) {
         Order order = new Order();
         order.setUserId(userId);
         order.setStatus(Order.OrderStatus.CREATED);
 
+        IdempotencyRecord idempotencyRecord = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? idempotencyService.reserve(userId, idempotencyKey, request)
+                : null;
+
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         for (OrderItemRequest itemRequest : request.getItems()) {
@@ -35,8 +70,7 @@ public class OrderService {
             item.setOrder(order);
             item.setProductId(itemRequest.getProductId());
             item.setQuantity(itemRequest.getQuantity());
-            // Price would be fetched from product service in real scenario
-            item.setPrice(BigDecimal.valueOf(100)); // Placeholder
+            item.setPrice(prices.get(itemRequest.getProductId()));
             item.setSubtotal(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
             totalAmount = totalAmount.add(item.getSubtotal());
             order.getItems().add(item);
@@ -45,52 +79,127 @@ public class OrderService {
         order.setTotalAmount(totalAmount);
         order = orderRepository.save(order);
 
-        // Publish order created event
+        // Queue order created event; OutboxRelay publishes it once this transaction commits
         OrderCreatedEvent event = new OrderCreatedEvent();
         event.setOrderId(order.getId());
         event.setUserId(userId);
-        event.setItems(order.getItems().stream()
-                .map(item -> {
-                    OrderItemDto dto = new OrderItemDto();
-                    dto.setProductId(item.getProductId());
-                    dto.setQuantity(item.getQuantity());
-                    return dto;
-                })
-                .collect(Collectors.toList()));
-
-        kafkaTemplate.send("order-created", event);
-        log.info("Published order created event for order ID: {}", order.getId());
+        event.setItems(toItemDtos(order));
+        event.setTotalAmount(order.getTotalAmount());
+        event.setCreatedAt(order.getCreatedAt());
 
-        return mapToResponse(order);
+        outboxService.enqueue(OrderEventType.ORDER_CREATED, order.getId(), event);
+        log.info("Queued order created event for order ID: {}", order.getId());
+
+        OrderResponse response = mapToResponse(order);
+        if (idempotencyRecord != null) {
+            idempotencyService.complete(idempotencyRecord, response);
+        }
+        return response;
     }
 
     public OrderResponse getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id.toString()));
         return mapToResponse(order);
     }
 
-    public List<OrderResponse> getUserOrders(Long userId) {
-        return orderRepository.findByUserId(userId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Reads the order_summaries read model, so history pages never touch the order write tables.
+     * A just-created order appears once its order-created event has been projected.
+     */
+    public CursorPage<OrderSummaryResponse> getUserOrders(Long userId, String cursor, Integer size) {
+        int pageSize = Math.min(size != null && size > 0 ? size : defaultPageSize, maxPageSize);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<OrderSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = orderSummaryRepository.findFirstPage(userId, limit);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            summaries = orderSummaryRepository.findPageBefore(userId, position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasNext = summaries.size() > pageSize;
+        if (hasNext) {
+            summaries = summaries.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummary last = summaries.get(summaries.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getOrderId()).encode();
+        }
+
+        return new CursorPage<>(summaries.stream().map(this::mapToSummaryResponse).toList(), nextCursor, hasNext);
     }
 
     @Transactional
     public OrderResponse updateOrderStatus(Long id, Order.OrderStatus status) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id.toString()));
-        order.setStatus(status);
-        order = orderRepository.save(order);
+        Order order = applyTransition(id, status);
+        publishStatusEvent(order, status, order.getPreviousStatus());
         return mapToResponse(order);
     }
 
     @Transactional
     public void cancelOrder(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id.toString()));
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        Order order = applyTransition(id, Order.OrderStatus.CANCELLED);
+        publishStatusEvent(order, Order.OrderStatus.CANCELLED, order.getPreviousStatus());
+    }
+
+    /**
+     * Moves the order to {@code status} with one conditional UPDATE over all allowed source states,
+     * so a concurrent transition cannot be overwritten. The same UPDATE copies the old status into
+     * previous_status; returns the order as written, or empty if it was not in an allowed source state.
+     */
+    @Transactional
+    public Optional<Order> transitionStatus(Long id, Order.OrderStatus status) {
+        if (orderRepository.transitionStatus(id, status, status.allowedPredecessors(), LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        return orderRepository.findWithItemsById(id);
+    }
+
+    private Order applyTransition(Long id, Order.OrderStatus status) {
+        return transitionStatus(id, status).orElseThrow(() -> {
+            if (!orderRepository.existsById(id)) {
+                return new ResourceNotFoundException("Order", "id", id.toString());
+            }
+            return new InvalidOrderStateException("Order " + id + " cannot move to " + status
+                    + "; allowed from " + status.allowedPredecessors());
+        });
+    }
+
+    private void publishStatusEvent(Order order, Order.OrderStatus status, Order.OrderStatus previous) {
+        switch (status) {
+            case PAID -> outboxService.enqueue(OrderEventType.ORDER_PAID, order.getId(), new OrderPaidEvent(
+                    order.getId(), order.getUserId(), order.getTotalAmount(), toItemDtos(order)));
+            case SHIPPED -> outboxService.enqueue(OrderEventType.ORDER_SHIPPED, order.getId(),
+                    new OrderShippedEvent(order.getId(), order.getUserId()));
+            case CANCELLED -> outboxService.enqueue(OrderEventType.ORDER_CANCELLED, order.getId(), new OrderCancelledEvent(
+                    order.getId(), order.getUserId(), previous.name(), toItemDtos(order)));
+            default -> {
+                return;
+            }
+        }
+        log.info("Queued {} event for order ID: {}", status, order.getId());
+    }
+
+    private List<OrderItemDto> toItemDtos(Order order) {
+        return order.getItems().stream()
+                .map(item -> new OrderItemDto(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+    }
+
+    private OrderSummaryResponse mapToSummaryResponse(OrderSummary summary) {
+        return OrderSummaryResponse.builder()
+                .id(summary.getOrderId())
+                .userId(summary.getUserId())
+                .status(summary.getStatus().name())
+                .itemCount(summary.getItemCount())
+                .totalAmount(summary.getTotalAmount())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
     }
 
     private OrderResponse mapToResponse(Order order) {
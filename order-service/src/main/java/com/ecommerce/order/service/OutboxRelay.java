@@ -0,0 +1,199 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.OutboxEvent;
+import com.ecommerce.order.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@link OutboxEvent} rows to Kafka in batches, keeping at most {@code maxInFlight}
+ * sends outstanding, and marks the acknowledged rows as sent with a single update.
+ *
+ * <p>A batch is claimed with a short transaction that leases its rows, and the sends run outside
+ * any transaction, so no row locks are held while waiting for the broker. A run that dies leaves
+ * its lease to expire and the rows are picked up again. Events that keep failing are parked as
+ * {@code FAILED} after {@code maxAttempts}.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter parkedCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-in-flight:50}")
+    private int maxInFlight;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${outbox.relay.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.retention-hours:24}")
+    private long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = Counter.builder("outbox.relay.events").tag("result", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.events").tag("result", "failed").register(meterRegistry);
+        this.parkedCounter = Counter.builder("outbox.relay.events").tag("result", "parked").register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch.duration").register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Age of the oldest pending outbox event at the last relay run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<OutboxEvent> claimed = outboxEventRepository.findBatchForRelay(now, PageRequest.of(0, batchSize));
+            if (!claimed.isEmpty()) {
+                outboxEventRepository.lease(claimed.stream().map(OutboxEvent::getId).toList(),
+                        now.plus(Duration.ofMillis(leaseMs)));
+            }
+            return claimed;
+        });
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), now).toMillis());
+
+        Timer.Sample sample = Timer.start();
+        Queue<Long> sent = new ConcurrentLinkedQueue<>();
+        Queue<OutboxEvent> failed = new ConcurrentLinkedQueue<>();
+        List<Long> parked = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+
+        try {
+            for (OutboxEvent event : batch) {
+                Object payload;
+                try {
+                    payload = objectMapper.readValue(event.getPayload(), event.getEventType().getPayloadType());
+                } catch (Exception e) {
+                    // retrying cannot fix a payload this build cannot read
+                    log.error("Could not deserialize outbox event ID: {}, parking it", event.getId(), e);
+                    parked.add(event.getId());
+                    continue;
+                }
+                inFlight.acquire();
+                CompletableFuture<?> future;
+                try {
+                    future = kafkaTemplate.send(event.getEventType().getTopic(), event.getEventKey(), payload);
+                } catch (RuntimeException e) {
+                    // serialization, metadata timeout or a closed producer: fails before any callback
+                    inFlight.release();
+                    log.warn("Failed to publish outbox event ID: {}", event.getId(), e);
+                    failed.add(event);
+                    continue;
+                }
+                futures.add(future.whenComplete((result, ex) -> {
+                    inFlight.release();
+                    if (ex == null) {
+                        sent.add(event.getId());
+                    } else {
+                        log.warn("Failed to publish outbox event ID: {}", event.getId(), ex);
+                        failed.add(event);
+                    }
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.warn("Outbox batch did not complete within {} ms, unacknowledged events will be retried when their lease ends",
+                    sendTimeoutMs);
+        } catch (ExecutionException e) {
+            // each failed send is already in failed through its callback
+            log.debug("Outbox batch completed with failed sends", e);
+        }
+
+        List<Long> retry = new ArrayList<>();
+        for (OutboxEvent event : failed) {
+            if (event.getAttempts() + 1 >= maxAttempts) {
+                log.error("Outbox event ID: {} failed {} times, parking it", event.getId(), event.getAttempts() + 1);
+                parked.add(event.getId());
+            } else {
+                retry.add(event.getId());
+            }
+        }
+        List<Long> acknowledged = new ArrayList<>(sent);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!acknowledged.isEmpty()) {
+                outboxEventRepository.markSent(acknowledged, LocalDateTime.now());
+            }
+            if (!retry.isEmpty()) {
+                outboxEventRepository.recordFailure(retry, LocalDateTime.now().plus(Duration.ofMillis(retryDelayMs)));
+            }
+            if (!parked.isEmpty()) {
+                outboxEventRepository.markFailed(parked);
+            }
+        });
+        sentCounter.increment(acknowledged.size());
+        failedCounter.increment(retry.size());
+        parkedCounter.increment(parked.size());
+        sample.stop(batchTimer);
+        log.debug("Relayed {} outbox events, {} failed, {} parked", acknowledged.size(), retry.size(), parked.size());
+    }
+
+    @Scheduled(cron = "${outbox.relay.purge-cron:0 0 * * * *}")
+    @Transactional
+    public void purgeSentEvents() {
+        int deleted = outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} relayed outbox events", deleted);
+        }
+    }
+}
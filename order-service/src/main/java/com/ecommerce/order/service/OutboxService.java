@@ -0,0 +1,35 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderEventType;
+import com.ecommerce.order.entity.OutboxEvent;
+import com.ecommerce.order.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores the event in the caller's transaction; {@link OutboxRelay} publishes it after commit,
+     * keyed by {@code orderId} as described on {@link OrderEventType}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OrderEventType eventType, Long orderId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setEventKey(orderId.toString());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " event", e);
+        }
+        outboxEventRepository.save(event);
+    }
+}
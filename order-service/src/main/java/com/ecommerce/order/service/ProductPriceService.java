@@ -0,0 +1,91 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.ProductResponse;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import com.ecommerce.order.exception.ServiceUnavailableException;
+import com.ecommerce.order.feign.ProductServiceClient;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves current product prices for a whole order in one catalog call, keeping a short-TTL
+ * local cache so repeated checkouts of popular products do not reach the catalog service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPriceService {
+    private final ProductServiceClient productServiceClient;
+    private final Map<Long, CachedPrice> cache = new ConcurrentHashMap<>();
+
+    @Value("${pricing.cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    @Value("${pricing.cache.max-entries:10000}")
+    private int maxEntries;
+
+    public Map<Long, BigDecimal> getPrices(Collection<Long> productIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+
+        for (Long productId : new LinkedHashSet<>(productIds)) {
+            CachedPrice cached = cache.get(productId);
+            if (cached != null && now - cached.fetchedAt() < ttlMs) {
+                prices.put(productId, cached.price());
+            } else {
+                misses.add(productId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            List<ProductResponse> products;
+            try {
+                products = productServiceClient.getProductsByIds(misses);
+            } catch (FeignException e) {
+                log.error("Price lookup failed for product IDs: {}", misses, e);
+                throw new ServiceUnavailableException("Product prices are currently unavailable, please retry");
+            }
+
+            for (ProductResponse product : products) {
+                if (product.getPrice() == null || !Boolean.TRUE.equals(product.getActive())) {
+                    continue;
+                }
+                prices.put(product.getId(), product.getPrice());
+                cache.put(product.getId(), new CachedPrice(product.getPrice(), now));
+            }
+            evictIfFull(now);
+        }
+
+        for (Long productId : productIds) {
+            if (!prices.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId.toString());
+            }
+        }
+        return prices;
+    }
+
+    private void evictIfFull(long now) {
+        if (cache.size() <= maxEntries) {
+            return;
+        }
+        cache.entrySet().removeIf(entry -> now - entry.getValue().fetchedAt() >= ttlMs);
+        if (cache.size() > maxEntries) {
+            cache.clear();
+        }
+    }
+
+    private record CachedPrice(BigDecimal price, long fetchedAt) {}
+}
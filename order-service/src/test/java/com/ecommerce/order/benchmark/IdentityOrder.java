@@ -0,0 +1,37 @@
+package com.ecommerce.order.benchmark;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code Order} as mapped before the switch to pooled sequences, for comparison in
+ * {@link OrderInsertRoundTripBenchmark}.
+ */
+@Entity
+@Table(name = "benchmark_identity_orders")
+@Data
+class IdentityOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<IdentityOrderItem> items = new ArrayList<>();
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
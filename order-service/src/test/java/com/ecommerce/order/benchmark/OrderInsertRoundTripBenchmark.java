@@ -0,0 +1,123 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements MySQL receives per saved order, with IDENTITY keys (one INSERT per row)
+ * against the pooled sequences and JDBC batching the entities use now. Run with
+ * {@code mvn -Pbenchmark test}; needs Docker.
+ */
+@Tag("benchmark")
+@Testcontainers
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderInsertRoundTripBenchmark {
+    private static final int ORDERS = 50;
+    private static final int ITEMS_PER_ORDER = 20;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void roundTripsPerMultiItemOrder() throws SQLException {
+        double identity = roundTripsPerOrder(this::saveIdentityOrder);
+        double pooled = roundTripsPerOrder(this::savePooledOrder);
+
+        System.out.printf("Round trips per %d-item order: IDENTITY %.1f, pooled sequence + batching %.1f%n",
+                ITEMS_PER_ORDER, identity, pooled);
+        assertThat(identity).isGreaterThanOrEqualTo(ITEMS_PER_ORDER + 1);
+        assertThat(pooled).isLessThan(identity / 4);
+    }
+
+    private double roundTripsPerOrder(Runnable saveOrder) throws SQLException {
+        // the first order pays for schema metadata and the first sequence blocks
+        saveOrder.run();
+        entityManager.flush();
+        entityManager.clear();
+
+        long calibration = questions();
+        long before = questions();
+        long overhead = before - calibration;
+        for (int i = 0; i < ORDERS; i++) {
+            saveOrder.run();
+            entityManager.flush();
+            entityManager.clear();
+        }
+        long after = questions();
+        return (after - before - overhead) / (double) ORDERS;
+    }
+
+    // server-wide, so sequence fetches on Hibernate's separate connection are counted too
+    private long questions() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW GLOBAL STATUS LIKE 'Questions'")) {
+            rs.next();
+            return rs.getLong(2);
+        }
+    }
+
+    private void savePooledOrder() {
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setStatus(Order.OrderStatus.CREATED);
+        order.setTotalAmount(BigDecimal.valueOf(2L * ITEMS_PER_ORDER));
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProductId((long) i + 1);
+            item.setQuantity(1);
+            item.setPrice(BigDecimal.valueOf(2));
+            item.setSubtotal(BigDecimal.valueOf(2));
+            order.getItems().add(item);
+        }
+        entityManager.persist(order);
+    }
+
+    private void saveIdentityOrder() {
+        IdentityOrder order = new IdentityOrder();
+        order.setUserId(1L);
+        order.setStatus("CREATED");
+        order.setTotalAmount(BigDecimal.valueOf(2L * ITEMS_PER_ORDER));
+        order.setCreatedAt(LocalDateTime.now());
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            IdentityOrderItem item = new IdentityOrderItem();
+            item.setOrder(order);
+            item.setProductId((long) i + 1);
+            item.setQuantity(1);
+            item.setPrice(BigDecimal.valueOf(2));
+            item.setSubtotal(BigDecimal.valueOf(2));
+            order.getItems().add(item);
+        }
+        entityManager.persist(order);
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.entity.OrderSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The order read paths must run a constant number of statements however many items or orders a
+ * user has: one for an order with its items, one for a page of order history.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderReadQueryCountTest {
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void orderWithItemsIsOneStatement() {
+        Long orderId = saveOrder(20);
+        saveOrder(5);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Order order = orderRepository.findWithItemsById(orderId).orElseThrow();
+        BigDecimal total = order.getItems().stream().map(OrderItem::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertThat(order.getItems()).hasSize(20);
+        assertThat(total).isEqualByComparingTo(order.getTotalAmount());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void historyPageIsOneStatementRegardlessOfHistoryLength() {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        for (long orderId = 1; orderId <= 60; orderId++) {
+            entityManager.persist(new OrderSummary(orderId, USER_ID, Order.OrderStatus.CREATED, 3,
+                    BigDecimal.TEN, createdAt.plusMinutes(orderId), createdAt.plusMinutes(orderId)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<OrderSummary> firstPage = orderSummaryRepository.findFirstPage(USER_ID, PageRequest.of(0, 21));
+        OrderSummary last = firstPage.get(firstPage.size() - 1);
+        List<OrderSummary> secondPage = orderSummaryRepository.findPageBefore(USER_ID, last.getCreatedAt(),
+                last.getOrderId(), PageRequest.of(0, 21));
+
+        assertThat(firstPage).hasSize(21);
+        assertThat(secondPage).hasSize(21);
+        assertThat(secondPage.get(0).getOrderId()).isEqualTo(last.getOrderId() - 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private Long saveOrder(int itemCount) {
+        Order order = new Order();
+        order.setUserId(USER_ID);
+        order.setStatus(Order.OrderStatus.CREATED);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProductId((long) i);
+            item.setQuantity(i);
+            item.setPrice(BigDecimal.valueOf(2));
+            item.setSubtotal(BigDecimal.valueOf(2L * i));
+            total = total.add(item.getSubtotal());
+            order.getItems().add(item);
+        }
+        order.setTotalAmount(total);
+        return orderRepository.save(order).getId();
+    }
+}
@@ -3,6 +3,7 @@ package com.ecommerce.product.controller;
 import com.ecommerce.product.dto.PagedResponse;
 import com.ecommerce.product.dto.ProductRequest;
 import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.SuggestionResponse;
 import com.ecommerce.product.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -37,6 +39,12 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(page, size, sortBy, sortDir));
     }
 
+    @GetMapping("/batch")
+    @Operation(summary = "Get active products by IDs")
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable("id") Long id) {
@@ -61,6 +69,14 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchProducts(keyword, page, size));
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest product names starting with a prefix, most popular first")
+    public ResponseEntity<List<SuggestionResponse>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
     @GetMapping("/price-range")
     @Operation(summary = "Get products by price range")
     public ResponseEntity<PagedResponse<ProductResponse>> getProductsByPriceRange(
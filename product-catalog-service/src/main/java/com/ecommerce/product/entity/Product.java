@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Table(name = "products", indexes = {
     @Index(name = "idx_product_name", columnList = "name"),
     @Index(name = "idx_product_category", columnList = "category_id"),
-    @Index(name = "idx_product_price", columnList = "price")
+    @Index(name = "idx_product_price", columnList = "price"),
+    @Index(name = "idx_product_updated_at", columnList = "updatedAt")
 })
 @Data
 @NoArgsConstructor
@@ -41,6 +42,10 @@ public class Product {
     @Column(nullable = false)
     private Boolean active = true;
 
+    // detail page views, flushed in batches by ProductPopularityTracker; weights suggestions
+    @Column(nullable = false)
+    private Long popularity = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -4,11 +4,14 @@ import com.ecommerce.product.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -27,4 +30,35 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                      Pageable pageable);
     
     List<Product> findByCategoryId(Long categoryId);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.active = true AND p.id IN :ids")
+    List<Product> findActiveByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset pages for the search index; the Pageable only carries the LIMIT
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, c.name AS categoryName, " +
+           "p.active AS active, p.popularity AS popularity, p.updatedAt AS updatedAt FROM Product p JOIN p.category c " +
+           "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSearchView> findSearchViewsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, c.name AS categoryName, " +
+           "p.active AS active, p.popularity AS popularity, p.updatedAt AS updatedAt FROM Product p JOIN p.category c " +
+           "WHERE p.updatedAt > :updatedAt OR (p.updatedAt = :updatedAt AND p.id > :afterId) " +
+           "ORDER BY p.updatedAt, p.id")
+    List<ProductSearchView> findSearchViewsUpdatedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, c.name AS categoryName, " +
+           "p.active AS active, p.popularity AS popularity, p.updatedAt AS updatedAt FROM Product p JOIN p.category c " +
+           "WHERE c.id = :categoryId")
+    List<ProductSearchView> findSearchViewsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Prefix LIKE can use idx_product_name; only used while the suggest index is loading
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.name LIKE CONCAT(:prefix, '%') ORDER BY p.popularity DESC")
+    List<Product> findByNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    // Bulk update: leaves updatedAt alone, so popularity alone does not make the search index reindex
+    @Modifying
+    @Query("UPDATE Product p SET p.popularity = p.popularity + :views WHERE p.id = :id")
+    int addPopularity(@Param("id") Long id, @Param("views") long views);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.ecommerce.product.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The product fields the search index needs, without loading entities.
+ */
+public interface ProductSearchView {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getCategoryName();
+
+    Boolean getActive();
+
+    Long getPopularity();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -16,6 +16,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
 
     @Transactional
     public CategoryResponse createCategory(CategoryRequest request) {
@@ -52,10 +53,14 @@ public class CategoryService {
             throw new RuntimeException("Category with name '" + request.getName() + "' already exists");
         }
 
+        boolean renamed = !category.getName().equals(request.getName());
         category.setName(request.getName());
         category.setDescription(request.getDescription());
 
         category = categoryRepository.save(category);
+        if (renamed) {
+            productSearchIndex.reindexCategoryAfterCommit(id);
+        }
         return mapToResponse(category);
     }
 
@@ -0,0 +1,48 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts product detail views in memory and adds them to {@code products.popularity} in one batch
+ * per interval, so a page view never writes to the database. Counts still in memory when the
+ * instance stops are lost, which is fine for a ranking signal. The map keeps one adder per product
+ * ever viewed on this instance, bounded by the catalog size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPopularityTracker {
+    private final ProductRepository productRepository;
+    private final Map<Long, LongAdder> views = new ConcurrentHashMap<>();
+
+    public void recordView(Long productId) {
+        views.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${products.popularity.flush-interval-ms:60000}")
+    @Transactional
+    public void flush() {
+        int products = 0;
+        // entries stay in place: a view that already looked up its adder must still land in a
+        // counter that a later flush reads; sumThenReset drains each cell atomically
+        for (Map.Entry<Long, LongAdder> entry : views.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                productRepository.addPopularity(entry.getKey(), count);
+                products++;
+            }
+        }
+        if (products > 0) {
+            log.debug("Added views of {} products to their popularity", products);
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductSearchView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, category name and description, so search does not
+ * scan the products table with {@code LIKE '%keyword%'}. Each term maps to a postings list of
+ * (document ordinal, weighted term frequency) pairs kept in ordinal order; matches must contain
+ * every query term (the last one may be a prefix) and are ranked with BM25.
+ *
+ * <p>A changed product gets a new ordinal and its old one is tombstoned until the next rebuild.
+ * Changes made through this instance are applied after commit; changes made by other instances
+ * are picked up by a periodic sync on {@code updatedAt}, and hard deletes by the periodic rebuild.
+ */
+@Service
+@Slf4j
+public class ProductSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_BOOST = 0.5f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final ProductRepository productRepository;
+    private final ProductSuggestIndex suggestIndex;
+    private final boolean enabled;
+    private final int loadPageSize;
+    private final long syncOverlapMillis;
+    private final double maxTombstoneRatio;
+    private final int maxPrefixExpansions;
+    private final int maxResultWindow;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Segment segment;
+    private volatile LocalDateTime syncedUpTo;
+    // changes applied while a rebuild is reading the table, replayed onto the new segment; guarded by lock
+    private Map<Long, Snapshot> changedDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              ProductSuggestIndex suggestIndex,
+                              @Value("${products.search.enabled:true}") boolean enabled,
+                              @Value("${products.search.load-page-size:5000}") int loadPageSize,
+                              @Value("${products.search.sync-overlap-ms:10000}") long syncOverlapMillis,
+                              @Value("${products.search.max-tombstone-ratio:0.25}") double maxTombstoneRatio,
+                              @Value("${products.search.max-prefix-expansions:32}") int maxPrefixExpansions,
+                              @Value("${products.search.max-result-window:10000}") int maxResultWindow) {
+        this.productRepository = productRepository;
+        this.suggestIndex = suggestIndex;
+        this.enabled = enabled;
+        this.loadPageSize = loadPageSize;
+        this.syncOverlapMillis = syncOverlapMillis;
+        this.maxTombstoneRatio = maxTombstoneRatio;
+        this.maxPrefixExpansions = maxPrefixExpansions;
+        this.maxResultWindow = maxResultWindow;
+    }
+
+    /**
+     * Returns one page of matching product IDs, best first, or empty while the index is disabled or
+     * still loading.
+     */
+    public Optional<SearchHits> search(String query, int page, int size) {
+        if (!enabled || segment == null) {
+            return Optional.empty();
+        }
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must not be negative and size must be positive");
+        }
+        if ((long) page * size >= maxResultWindow) {
+            throw new IllegalArgumentException("Search results are limited to the first " + maxResultWindow + " hits");
+        }
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return Optional.of(new SearchHits(List.of(), 0));
+        }
+        int window = (int) Math.min((long) (page + 1) * size, maxResultWindow);
+
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            List<List<Match>> groups = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                List<Match> group = matches(current, tokens.get(i), i == tokens.size() - 1);
+                if (group.isEmpty()) {
+                    return Optional.of(new SearchHits(List.of(), 0));
+                }
+                groups.add(group);
+            }
+            // drive from the rarest term; the others are probed with forward-only galloping cursors
+            groups.sort(Comparator.comparingLong(ProductSearchIndex::postingsCount));
+
+            float averageLength = current.averageLength();
+            List<Match> driver = groups.get(0);
+            int[] cursors = new int[driver.size()];
+            int[][] probeCursors = new int[groups.size()][];
+            for (int g = 1; g < groups.size(); g++) {
+                probeCursors[g] = new int[groups.get(g).size()];
+            }
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(window, ScoredDoc.WORST_FIRST);
+            long total = 0;
+            while (true) {
+                // walk the union of the driver's postings in ordinal order, one document at a time
+                int doc = Integer.MAX_VALUE;
+                for (int m = 0; m < cursors.length; m++) {
+                    Postings postings = driver.get(m).postings();
+                    if (cursors[m] < postings.size) {
+                        doc = Math.min(doc, postings.docs[cursors[m]]);
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                float score = 0;
+                for (int m = 0; m < cursors.length; m++) {
+                    Postings postings = driver.get(m).postings();
+                    if (cursors[m] < postings.size && postings.docs[cursors[m]] == doc) {
+                        score += bm25(current, driver.get(m), postings.frequencies[cursors[m]], doc, averageLength);
+                        cursors[m]++;
+                    }
+                }
+                if (current.deleted.get(doc)) {
+                    continue;
+                }
+                boolean matchesAll = true;
+                for (int g = 1; g < groups.size() && matchesAll; g++) {
+                    float groupScore = score(current, groups.get(g), probeCursors[g], doc, averageLength);
+                    matchesAll = groupScore > 0;
+                    score += groupScore;
+                }
+                if (!matchesAll) {
+                    continue;
+                }
+                total++;
+                ScoredDoc hit = new ScoredDoc(doc, score);
+                if (top.size() < window) {
+                    top.add(hit);
+                } else if (ScoredDoc.WORST_FIRST.compare(top.peek(), hit) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(ScoredDoc.WORST_FIRST.reversed());
+            List<Long> productIds = new ArrayList<>(size);
+            for (int i = page * size; i < ranked.size(); i++) {
+                productIds.add(current.productIds[ranked.get(i).doc()]);
+            }
+            return Optional.of(new SearchHits(productIds, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexAfterCommit(Product product) {
+        afterCommit(() -> update(new Snapshot(product.getId(), product.getName(), product.getDescription(),
+                product.getCategory().getName(), product.getActive(), product.getPopularity(),
+                product.getUpdatedAt()), false));
+    }
+
+    public void removeAfterCommit(Long productId) {
+        afterCommit(() -> update(new Snapshot(productId, null, null, null, false, 0, null), false));
+    }
+
+    /**
+     * A renamed category does not touch its products' {@code updatedAt}, so they are reindexed
+     * unconditionally.
+     */
+    public void reindexCategoryAfterCommit(Long categoryId) {
+        afterCommit(() -> productRepository.findSearchViewsByCategoryId(categoryId)
+                .forEach(view -> update(Snapshot.of(view), true)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reads the whole table into a fresh segment and swaps it in, dropping tombstones and products
+     * deleted by other instances. The suggest index is rebuilt from the same pass.
+     */
+    @Scheduled(fixedDelayString = "${products.search.rebuild-interval-ms:3600000}",
+            initialDelayString = "${products.search.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Segment fresh = new Segment();
+            List<ProductSuggestIndex.Source> suggestions = new ArrayList<>();
+            long afterId = 0;
+            List<ProductSearchView> page;
+            do {
+                page = productRepository.findSearchViewsAfterId(afterId, PageRequest.of(0, loadPageSize));
+                for (ProductSearchView view : page) {
+                    Snapshot product = Snapshot.of(view);
+                    apply(fresh, product, false);
+                    if (product.active()) {
+                        suggestions.add(new ProductSuggestIndex.Source(product.id(), product.name(), product.popularity()));
+                    }
+                    afterId = view.getId();
+                }
+            } while (page.size() == loadPageSize);
+            ProductSuggestIndex.Base suggestBase = suggestIndex.build(suggestions);
+
+            lock.writeLock().lock();
+            try {
+                segment = fresh;
+                suggestIndex.install(suggestBase);
+                for (Snapshot product : changedDuringRebuild.values()) {
+                    apply(fresh, product, true);
+                    suggestIndex.apply(product.id(), product.name(), product.popularity(), product.active());
+                }
+                syncedUpTo = startedAt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Indexed {} products ({} terms) in {} ms", fresh.live, fresh.terms.size(),
+                    System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the product search index", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Applies products changed since the last sync, including changes made by other instances.
+     * Rows near the previous watermark are read again to tolerate clock skew between instances;
+     * unchanged ones are skipped.
+     */
+    @Scheduled(fixedDelayString = "${products.search.sync-interval-ms:30000}",
+            initialDelayString = "${products.search.sync-interval-ms:30000}")
+    public void syncChanges() {
+        Segment current = segment;
+        if (!enabled || current == null || rebuilding.get()) {
+            return;
+        }
+        if (current.tombstones() > current.live * maxTombstoneRatio || suggestIndex.needsRebuild()) {
+            rebuild();
+            return;
+        }
+
+        LocalDateTime updatedAt = syncedUpTo.minus(syncOverlapMillis, ChronoUnit.MILLIS);
+        long afterId = 0;
+        List<ProductSearchView> page;
+        do {
+            page = productRepository.findSearchViewsUpdatedAfter(updatedAt, afterId, PageRequest.of(0, loadPageSize));
+            for (ProductSearchView view : page) {
+                update(Snapshot.of(view), false);
+                updatedAt = view.getUpdatedAt();
+                afterId = view.getId();
+            }
+        } while (page.size() == loadPageSize);
+        if (updatedAt.isAfter(syncedUpTo)) {
+            syncedUpTo = updatedAt;
+        }
+    }
+
+    private void update(Snapshot product, boolean force) {
+        lock.writeLock().lock();
+        try {
+            if (segment != null && apply(segment, product, force)) {
+                suggestIndex.apply(product.id(), product.name(), product.popularity(), product.active());
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(product.id(), product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns false when the segment already holds this version of the product.
+     */
+    private static boolean apply(Segment target, Snapshot product, boolean force) {
+        if (!product.active()) {
+            target.remove(product.id());
+            return true;
+        }
+        long version = product.updatedAt() == null ? 0
+                : product.updatedAt().truncatedTo(ChronoUnit.MILLIS).toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (!force && target.isCurrent(product.id(), version)) {
+            return false;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTerms(frequencies, product.name(), NAME_WEIGHT)
+                + addTerms(frequencies, product.categoryName(), CATEGORY_WEIGHT)
+                + addTerms(frequencies, product.description(), DESCRIPTION_WEIGHT);
+        target.add(product.id(), version, frequencies, length);
+        return true;
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> frequencies.merge(token, weight, Integer::sum));
+        return tokens.size() * weight;
+    }
+
+    /**
+     * Lower-cases, strips accents and splits on anything that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(NON_WORD.split(folded.toLowerCase()))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private List<Match> matches(Segment current, String token, boolean prefix) {
+        List<Match> group = new ArrayList<>();
+        Postings exact = current.terms.get(token);
+        if (exact != null) {
+            group.add(new Match(exact, idf(current, exact), 1f));
+        }
+        if (prefix) {
+            // search-as-you-type: the last term also matches longer terms, at a lower weight
+            int expansions = 0;
+            for (Postings postings : current.terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                if (expansions++ == maxPrefixExpansions) {
+                    break;
+                }
+                group.add(new Match(postings, idf(current, postings), PREFIX_BOOST));
+            }
+        }
+        return group;
+    }
+
+    private static float idf(Segment current, Postings postings) {
+        return (float) Math.log(1 + (current.live - postings.size + 0.5) / (postings.size + 0.5));
+    }
+
+    private static float score(Segment current, List<Match> group, int[] cursors, int doc, float averageLength) {
+        float score = 0;
+        for (int m = 0; m < cursors.length; m++) {
+            Postings postings = group.get(m).postings();
+            cursors[m] = postings.advance(cursors[m], doc);
+            if (cursors[m] < postings.size && postings.docs[cursors[m]] == doc) {
+                score += bm25(current, group.get(m), postings.frequencies[cursors[m]], doc, averageLength);
+            }
+        }
+        return score;
+    }
+
+    private static float bm25(Segment current, Match match, int frequency, int doc, float averageLength) {
+        float norm = K1 * (1 - B + B * current.lengths[doc] / averageLength);
+        return match.boost() * match.idf() * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private static long postingsCount(List<Match> group) {
+        long count = 0;
+        for (Match match : group) {
+            count += match.postings().size;
+        }
+        return count;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public record SearchHits(List<Long> productIds, long totalHits) {
+    }
+
+    private record Snapshot(Long id, String name, String description, String categoryName, boolean active,
+                            long popularity, LocalDateTime updatedAt) {
+        static Snapshot of(ProductSearchView view) {
+            return new Snapshot(view.getId(), view.getName(), view.getDescription(), view.getCategoryName(),
+                    Boolean.TRUE.equals(view.getActive()),
+                    view.getPopularity() != null ? view.getPopularity() : 0, view.getUpdatedAt());
+        }
+    }
+
+    private record Match(Postings postings, float idf, float boost) {
+    }
+
+    private record ScoredDoc(int doc, float score) {
+        // lower score first; on equal scores the later ordinal ranks lower
+        static final Comparator<ScoredDoc> WORST_FIRST = Comparator.comparingDouble(ScoredDoc::score)
+                .thenComparing(Comparator.comparingInt(ScoredDoc::doc).reversed());
+    }
+
+    /**
+     * Document ordinals are assigned in insertion order, so appending keeps every postings list
+     * sorted and lookups can binary search.
+     */
+    private static final class Segment {
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final BitSet deleted = new BitSet();
+        private long[] productIds = new long[1024];
+        private long[] versions = new long[1024];
+        private int[] lengths = new int[1024];
+        private int size;
+        private int live;
+        private long totalLength;
+
+        private void add(long productId, long version, Map<String, Integer> frequencies, int length) {
+            remove(productId);
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            int doc = size++;
+            productIds[doc] = productId;
+            versions[doc] = version;
+            lengths[doc] = length;
+            frequencies.forEach((term, frequency) -> terms.computeIfAbsent(term, t -> new Postings()).add(doc, frequency));
+            ordinals.put(productId, doc);
+            live++;
+            totalLength += length;
+        }
+
+        private void remove(long productId) {
+            Integer doc = ordinals.remove(productId);
+            if (doc != null) {
+                deleted.set(doc);
+                live--;
+                totalLength -= lengths[doc];
+            }
+        }
+
+        private boolean isCurrent(long productId, long version) {
+            Integer doc = ordinals.get(productId);
+            return doc != null && versions[doc] == version;
+        }
+
+        private float averageLength() {
+            return live == 0 ? 1 : Math.max(1, (float) totalLength / live);
+        }
+
+        private int tombstones() {
+            return size - live;
+        }
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Returns the first position at or after {@code from} whose document is not below
+         * {@code doc}, galloping ahead before binary searching.
+         */
+        private int advance(int from, int doc) {
+            if (from >= size) {
+                return size;
+            }
+            int bound = 1;
+            while (from + bound < size && docs[from + bound] < doc) {
+                bound <<= 1;
+            }
+            int index = Arrays.binarySearch(docs, from + (bound >> 1), Math.min(from + bound + 1, size), doc);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
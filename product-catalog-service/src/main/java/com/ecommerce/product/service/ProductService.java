@@ -3,12 +3,14 @@ package com.ecommerce.product.service;
 import com.ecommerce.product.dto.PagedResponse;
 import com.ecommerce.product.dto.ProductRequest;
 import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.SuggestionResponse;
 import com.ecommerce.product.entity.Category;
 import com.ecommerce.product.entity.Product;
 import com.ecommerce.product.exception.ResourceNotFoundException;
 import com.ecommerce.product.repository.CategoryRepository;
 import com.ecommerce.product.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,13 +19,26 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    private static final int MAX_BATCH_IDS = 500;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductPopularityTracker popularityTracker;
+
+    @Value("${products.suggest.max-limit:20}")
+    private int maxSuggestions;
 
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
@@ -39,6 +54,7 @@ public class ProductService {
         product.setActive(request.getActive() != null ? request.getActive() : true);
 
         product = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(product);
         return mapToResponse(product);
     }
 
@@ -55,9 +71,19 @@ public class ProductService {
         if (!product.getActive()) {
             throw new ResourceNotFoundException("Product", "id", id.toString());
         }
+        popularityTracker.recordView(id);
         return mapToResponse(product);
     }
 
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " product IDs can be requested at once");
+        }
+        return productRepository.findActiveByIdIn(ids).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
     public PagedResponse<ProductResponse> getProductsByCategory(Long categoryId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable);
@@ -65,11 +91,28 @@ public class ProductService {
     }
 
     public PagedResponse<ProductResponse> searchProducts(String keyword, int page, int size) {
+        Optional<ProductSearchIndex.SearchHits> hits = productSearchIndex.search(keyword, page, size);
+        if (hits.isPresent()) {
+            return mapToPagedResponse(hits.get(), page, size);
+        }
+        // index disabled or still loading
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productRepository.searchProducts(keyword, pageable);
         return mapToPagedResponse(products);
     }
 
+    public List<SuggestionResponse> suggestProducts(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int size = Math.min(Math.max(limit, 1), maxSuggestions);
+        return productSuggestIndex.suggest(prefix, size).orElseGet(() ->
+                // suggest index still loading
+                productRepository.findByNamePrefix(prefix.trim(), PageRequest.of(0, size)).stream()
+                        .map(product -> new SuggestionResponse(product.getId(), product.getName()))
+                        .collect(Collectors.toList()));
+    }
+
     public PagedResponse<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
@@ -94,6 +137,7 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(product);
         return mapToResponse(product);
     }
 
@@ -102,6 +146,7 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id.toString()));
         productRepository.delete(product);
+        productSearchIndex.removeAfterCommit(id);
     }
 
     private ProductResponse mapToResponse(Product product) {
@@ -119,6 +164,20 @@ public class ProductService {
                 .build();
     }
 
+    private PagedResponse<ProductResponse> mapToPagedResponse(ProductSearchIndex.SearchHits hits, int page, int size) {
+        Map<Long, Product> products = hits.productIds().isEmpty() ? Map.of()
+                : productRepository.findActiveByIdIn(hits.productIds()).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+        // keep the index's ranking; a product deleted since the search is skipped
+        List<ProductResponse> content = hits.productIds().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        int totalPages = (int) ((hits.totalHits() + size - 1) / size);
+        return new PagedResponse<>(content, page, size, hits.totalHits(), totalPages, page + 1 >= totalPages);
+    }
+
     private PagedResponse<ProductResponse> mapToPagedResponse(Page<Product> products) {
         return new PagedResponse<>(
                 products.getContent().stream()
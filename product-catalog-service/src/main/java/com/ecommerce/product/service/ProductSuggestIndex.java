@@ -0,0 +1,336 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.SuggestionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Typeahead over product names, weighted by popularity. Most names live in an immutable base built
+ * on every search index rebuild: names and their normalized keys are packed into char arrays, there
+ * is one entry per word start sorted by the key text from that word on, and a max-weight segment
+ * tree over the entries yields the k most popular names under a prefix in O(k log n).
+ *
+ * <p>Products changed since the base was built go to a small sorted overlay and hide their base
+ * entries. {@link ProductSearchIndex} drives all updates and rebuilds.
+ */
+@Service
+public class ProductSuggestIndex {
+    private static final int MAX_WORDS_PER_NAME = 8;
+    private static final char OVERLAY_SEPARATOR = '\u0000';
+
+    private final int maxOverlaySize;
+    private volatile State state;
+
+    public ProductSuggestIndex(@Value("${products.suggest.max-overlay-size:10000}") int maxOverlaySize) {
+        this.maxOverlaySize = maxOverlaySize;
+    }
+
+    /**
+     * Returns up to {@code limit} names starting with {@code prefix} at any word, most popular
+     * first, or empty until the first base is installed.
+     */
+    public Optional<List<SuggestionResponse>> suggest(String prefix, int limit) {
+        State current = state;
+        if (current == null) {
+            return Optional.empty();
+        }
+        String key = String.join(" ", ProductSearchIndex.tokenize(prefix));
+        if (key.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        if (!Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1))) {
+            // "usb " should not match "usbc"
+            key += ' ';
+        }
+
+        List<Candidate> candidates = current.base.top(key, limit, current.shadowed);
+        for (OverlayEntry entry : current.overlay.subMap(key, key + Character.MAX_VALUE).values()) {
+            candidates.add(new Candidate(entry.productId(), entry.name(), entry.key(), entry.weight()));
+        }
+        candidates.sort(Candidate.BEST_FIRST);
+
+        List<SuggestionResponse> suggestions = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            // products sharing a name are suggested once, under the most popular of them
+            if (seen.add(candidate.key())) {
+                suggestions.add(new SuggestionResponse(candidate.productId(), candidate.name()));
+            }
+        }
+        return Optional.of(suggestions);
+    }
+
+    /**
+     * Packs a freshly loaded catalog into a base; call {@link #install} to make it visible.
+     */
+    public Base build(List<Source> sources) {
+        return Base.of(sources);
+    }
+
+    public synchronized void install(Base base) {
+        state = new State(base);
+    }
+
+    public synchronized void apply(Long productId, String name, long popularity, boolean active) {
+        State current = state;
+        if (current == null) {
+            return;
+        }
+        List<String> previous = current.overlayKeys.remove(productId);
+        if (previous != null) {
+            previous.forEach(current.overlay::remove);
+        }
+        current.shadowed.add(productId);
+
+        String key = active ? String.join(" ", ProductSearchIndex.tokenize(name)) : "";
+        if (key.isEmpty()) {
+            return;
+        }
+        List<String> overlayKeys = new ArrayList<>();
+        for (int start : wordStarts(key)) {
+            String overlayKey = key.substring(start) + OVERLAY_SEPARATOR + productId;
+            current.overlay.put(overlayKey, new OverlayEntry(productId, name, key, popularity));
+            overlayKeys.add(overlayKey);
+        }
+        current.overlayKeys.put(productId, overlayKeys);
+    }
+
+    public synchronized boolean needsRebuild() {
+        return state != null && state.overlayKeys.size() > maxOverlaySize;
+    }
+
+    private static List<Integer> wordStarts(String key) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 1; i < key.length() && starts.size() < MAX_WORDS_PER_NAME; i++) {
+            if (key.charAt(i - 1) == ' ') {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    public record Source(Long productId, String name, long popularity) {
+    }
+
+    private record OverlayEntry(Long productId, String name, String key, long weight) {
+    }
+
+    private record Candidate(Long productId, String name, String key, long weight) {
+        static final Comparator<Candidate> BEST_FIRST = Comparator.comparingLong(Candidate::weight).reversed()
+                .thenComparing(Candidate::productId);
+    }
+
+    private static final class State {
+        private final Base base;
+        private final ConcurrentSkipListMap<String, OverlayEntry> overlay = new ConcurrentSkipListMap<>();
+        private final Set<Long> shadowed = ConcurrentHashMap.newKeySet();
+        // overlay keys per product, so a second change can drop the first; guarded by the index monitor
+        private final Map<Long, List<String>> overlayKeys = new HashMap<>();
+
+        private State(Base base) {
+            this.base = base;
+        }
+    }
+
+    /**
+     * Immutable part of the index. Entry {@code e} is the key of document {@code entryDocs[e]} from
+     * character {@code entryStarts[e]} on; {@code tree} is a bottom-up segment tree holding, for
+     * every node, the entry with the highest weight below it.
+     */
+    public static final class Base {
+        private final long[] productIds;
+        private final long[] weights;
+        private final char[] names;
+        private final int[] nameOffsets;
+        private final char[] keys;
+        private final int[] keyOffsets;
+        private final int[] entryDocs;
+        private final int[] entryStarts;
+        private final int[] tree;
+
+        private Base(long[] productIds, long[] weights, char[] names, int[] nameOffsets, char[] keys,
+                     int[] keyOffsets, int[] entryDocs, int[] entryStarts) {
+            this.productIds = productIds;
+            this.weights = weights;
+            this.names = names;
+            this.nameOffsets = nameOffsets;
+            this.keys = keys;
+            this.keyOffsets = keyOffsets;
+            this.entryDocs = entryDocs;
+            this.entryStarts = entryStarts;
+            int entries = entryDocs.length;
+            this.tree = new int[2 * entries];
+            for (int e = 0; e < entries; e++) {
+                tree[entries + e] = e;
+            }
+            for (int node = entries - 1; node > 0; node--) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        private static Base of(List<Source> sources) {
+            int docs = sources.size();
+            long[] productIds = new long[docs];
+            long[] weights = new long[docs];
+            int[] nameOffsets = new int[docs + 1];
+            int[] keyOffsets = new int[docs + 1];
+            StringBuilder names = new StringBuilder();
+            StringBuilder keys = new StringBuilder();
+            List<int[]> entries = new ArrayList<>();
+            int doc = 0;
+            for (Source source : sources) {
+                String key = String.join(" ", ProductSearchIndex.tokenize(source.name()));
+                if (key.isEmpty()) {
+                    continue;
+                }
+                productIds[doc] = source.productId();
+                weights[doc] = source.popularity();
+                nameOffsets[doc] = names.length();
+                keyOffsets[doc] = keys.length();
+                names.append(source.name());
+                keys.append(key);
+                for (int start : wordStarts(key)) {
+                    entries.add(new int[]{doc, start});
+                }
+                doc++;
+            }
+            nameOffsets[doc] = names.length();
+            keyOffsets[doc] = keys.length();
+
+            char[] keyChars = keys.toString().toCharArray();
+            int[] docEnds = Arrays.copyOfRange(keyOffsets, 1, doc + 1);
+            int[] starts = Arrays.copyOf(keyOffsets, doc);
+            entries.sort((a, b) -> compareSuffixes(keyChars, starts[a[0]] + a[1], docEnds[a[0]],
+                    starts[b[0]] + b[1], docEnds[b[0]]));
+            int[] entryDocs = new int[entries.size()];
+            int[] entryStarts = new int[entries.size()];
+            for (int e = 0; e < entries.size(); e++) {
+                entryDocs[e] = entries.get(e)[0];
+                entryStarts[e] = entries.get(e)[1];
+            }
+            return new Base(Arrays.copyOf(productIds, doc), Arrays.copyOf(weights, doc),
+                    names.toString().toCharArray(), Arrays.copyOf(nameOffsets, doc + 1), keyChars,
+                    Arrays.copyOf(keyOffsets, doc + 1), entryDocs, entryStarts);
+        }
+
+        private List<Candidate> top(String prefix, int limit, Set<Long> shadowed) {
+            List<Candidate> candidates = new ArrayList<>(limit);
+            int from = lowerBound(prefix, false);
+            int to = lowerBound(prefix, true);
+            if (from >= to) {
+                return candidates;
+            }
+
+            // best-first over sub-ranges: take the heaviest entry of a range, then split around it
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> better(a[2], b[2]) == a[2] ? -1 : 1);
+            ranges.add(new int[]{from, to, argmax(from, to)});
+            // a name matching at several words, or shared by several products, is taken once
+            Set<String> seenKeys = new HashSet<>();
+            while (!ranges.isEmpty() && candidates.size() < limit) {
+                int[] range = ranges.poll();
+                int entry = range[2];
+                int doc = entryDocs[entry];
+                if (!shadowed.contains(productIds[doc])) {
+                    String key = new String(keys, keyOffsets[doc], keyOffsets[doc + 1] - keyOffsets[doc]);
+                    if (seenKeys.add(key)) {
+                        candidates.add(new Candidate(productIds[doc],
+                                new String(names, nameOffsets[doc], nameOffsets[doc + 1] - nameOffsets[doc]),
+                                key, weights[doc]));
+                    }
+                }
+                if (range[0] < entry) {
+                    ranges.add(new int[]{range[0], entry, argmax(range[0], entry)});
+                }
+                if (entry + 1 < range[1]) {
+                    ranges.add(new int[]{entry + 1, range[1], argmax(entry + 1, range[1])});
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * First entry whose suffix is not below {@code prefix}, or with {@code pastPrefix}, the first
+         * one that sorts after every suffix starting with it.
+         */
+        private int lowerBound(String prefix, boolean pastPrefix) {
+            int low = 0;
+            int high = entryDocs.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = comparePrefix(mid, prefix);
+                if (cmp < 0 || (pastPrefix && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int comparePrefix(int entry, String prefix) {
+            int doc = entryDocs[entry];
+            int position = keyOffsets[doc] + entryStarts[entry];
+            int end = keyOffsets[doc + 1];
+            for (int i = 0; i < prefix.length(); i++, position++) {
+                if (position == end) {
+                    return -1;
+                }
+                int diff = keys[position] - prefix.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return 0;
+        }
+
+        private static int compareSuffixes(char[] keys, int a, int aEnd, int b, int bEnd) {
+            while (a < aEnd && b < bEnd) {
+                int diff = keys[a++] - keys[b++];
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return (aEnd - a) - (bEnd - b);
+        }
+
+        private int argmax(int from, int to) {
+            int entries = entryDocs.length;
+            int best = from;
+            for (int low = from + entries, high = to + entries; low < high; low >>= 1, high >>= 1) {
+                if ((low & 1) == 1) {
+                    best = better(best, tree[low++]);
+                }
+                if ((high & 1) == 1) {
+                    best = better(best, tree[--high]);
+                }
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            long weightA = weights[entryDocs[a]];
+            long weightB = weights[entryDocs[b]];
+            if (weightA != weightB) {
+                return weightA > weightB ? a : b;
+            }
+            return a <= b ? a : b;
+        }
+    }
+}
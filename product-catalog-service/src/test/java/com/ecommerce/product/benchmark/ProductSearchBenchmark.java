@@ -0,0 +1,164 @@
+package com.ecommerce.product.benchmark;
+
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductSearchIndex;
+import com.ecommerce.product.service.ProductSuggestIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * First-page search latency over a generated catalog ({@code -Dbenchmark.products}, one million by
+ * default): {@link ProductSearchIndex} against the {@code LIKE '%keyword%'} query it replaced. Hit
+ * counts are printed too, since the index matches whole tokens (the last one as a prefix) where
+ * LIKE matched substrings. Run with {@code mvn -Pbenchmark test}; needs Docker.
+ */
+@Tag("benchmark")
+@Testcontainers
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSearchBenchmark {
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 1_000_000);
+    private static final int CATEGORIES = 50;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int INDEX_RUNS = 200;
+    private static final int LIKE_RUNS = 3;
+    private static final List<String> QUERIES = List.of("wireless", "phone case", "usb charg", "steel kitchen knife", "smart");
+    private static final String[] COMMON_WORDS = {
+            "wireless", "phone", "smartphone", "case", "usb", "charger", "charging", "cable", "steel", "kitchen",
+            "knife", "smart", "watch", "speaker", "portable", "leather", "cotton", "shirt", "running", "shoe"};
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indexAgainstLike() {
+        generateCatalog();
+        ProductSearchIndex index = new ProductSearchIndex(productRepository, new ProductSuggestIndex(10_000),
+                true, 5_000, 10_000, 0.25, 32, 10_000);
+        long loadStarted = System.nanoTime();
+        index.rebuild();
+        System.out.printf("Indexed %,d products in %,d ms%n", PRODUCTS, (System.nanoTime() - loadStarted) / 1_000_000);
+
+        List<Long> indexTimes = new ArrayList<>();
+        List<Long> likeTimes = new ArrayList<>();
+        for (String query : QUERIES) {
+            long indexHits = index.search(query, 0, PAGE_SIZE).orElseThrow().totalHits();
+            long likeHits = productRepository.searchProducts(query, PageRequest.of(0, PAGE_SIZE)).getTotalElements();
+            indexTimes.addAll(time(INDEX_RUNS, () -> index.search(query, 0, PAGE_SIZE).orElseThrow().totalHits()));
+            likeTimes.addAll(time(LIKE_RUNS, () ->
+                    productRepository.searchProducts(query, PageRequest.of(0, PAGE_SIZE)).getTotalElements()));
+            System.out.printf("  \"%s\": index %,d hits, LIKE %,d hits%n", query, indexHits, likeHits);
+            assertThat(indexHits).isPositive();
+        }
+
+        double indexMean = meanMillis(indexTimes);
+        double likeMean = meanMillis(likeTimes);
+        System.out.printf("First page of %d over %,d products: index mean %.3f ms, p99 %.3f ms; "
+                        + "LIKE mean %.1f ms, max %.1f ms%n",
+                PAGE_SIZE, PRODUCTS, indexMean, percentileMillis(indexTimes, 0.99), likeMean,
+                percentileMillis(likeTimes, 1.0));
+        assertThat(indexMean).isLessThan(likeMean);
+    }
+
+    private void generateCatalog() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> categories = new ArrayList<>(CATEGORIES);
+        for (int c = 1; c <= CATEGORIES; c++) {
+            categories.add(new Object[]{"Category " + c, timestamp, timestamp});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO categories (name, created_at, updated_at) VALUES (?, ?, ?)", categories);
+        List<Long> categoryIds = jdbcTemplate.queryForList("SELECT id FROM categories ORDER BY id", Long.class);
+
+        Random random = new Random(42);
+        String[] vocabulary = vocabulary(random, 5_000);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int p = 0; p < PRODUCTS; p++) {
+            batch.add(new Object[]{words(random, vocabulary, 3 + random.nextInt(3)), words(random, vocabulary, 12),
+                    BigDecimal.valueOf(1 + random.nextInt(50_000), 2), categoryIds.get(random.nextInt(CATEGORIES)),
+                    timestamp, timestamp});
+            if (batch.size() == INSERT_BATCH || p == PRODUCTS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, category_id, active, popularity, "
+                        + "created_at, updated_at) VALUES (?, ?, ?, ?, true, 0, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // a few common product words and many rare ones, so postings lengths vary like a real catalog
+    private String[] vocabulary(Random random, int size) {
+        String[] words = Arrays.copyOf(COMMON_WORDS, size);
+        for (int i = COMMON_WORDS.length; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private String words(Random random, String[] vocabulary, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // squaring skews picks towards the front of the vocabulary
+            double skew = random.nextDouble();
+            String word = vocabulary[(int) (skew * skew * vocabulary.length)];
+            text.append(i == 0 ? "" : " ").append(word);
+        }
+        return text.toString();
+    }
+
+    private List<Long> time(int runs, LongSupplier search) {
+        List<Long> times = new ArrayList<>(runs);
+        for (int i = 0; i < runs; i++) {
+            long started = System.nanoTime();
+            search.getAsLong();
+            times.add(System.nanoTime() - started);
+        }
+        return times;
+    }
+
+    private double meanMillis(List<Long> times) {
+        return times.stream().mapToLong(Long::longValue).average().orElse(0) / 1_000_000.0;
+    }
+
+    private double percentileMillis(List<Long> times, double percentile) {
+        long[] sorted = times.stream().mapToLong(Long::longValue).sorted().toArray();
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}